@@ -0,0 +1,100 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Generates schema files, imports and registry subject names used by the benchmarks.
+ * <p>
+ * Imports form a chain - every import references the previous one, so import depth equals number of imports. Every schema file
+ * references the last import of the chain.
+ */
+final class BenchmarkFixtures {
+
+    static final String SUBJECT_NAME_PATTERN = "^(?<topicname>.+)-(?<schematypefullname>.[^-]+)-value";
+    static final String EVENTS_NAMESPACE = "bench.events";
+    static final String IMPORTS_NAMESPACE = "bench.imports";
+
+    /**
+     * Every n-th generated subject does not follow subject naming pattern.
+     */
+    private static final int UNMATCHED_SUBJECT_RATIO = 50;
+
+    private BenchmarkFixtures() {
+    }
+
+    static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("schema-registry-compatibility-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<File> writeImports(final Path directory, final int importDepth) {
+        final List<File> imports = new ArrayList<>(importDepth);
+        for (int i = 0; i < importDepth; i++) {
+            final String previousField = i == 0
+                    ? ""
+                    : String.format(",{\"name\":\"previous\",\"type\":[\"null\",\"%s.Import%s\"],\"default\":null}", IMPORTS_NAMESPACE, i - 1);
+            final String schema = String.format(
+                    "{\"type\":\"record\",\"name\":\"Import%s\",\"namespace\":\"%s\",\"fields\":[{\"name\":\"value\",\"type\":\"string\"}%s]}",
+                    i, IMPORTS_NAMESPACE, previousField);
+            imports.add(write(directory.resolve("import" + i + ".avsc"), schema));
+        }
+        return imports;
+    }
+
+    static List<File> writeSchemaFiles(final Path directory, final int fileCount, final int importDepth) {
+        final List<File> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(write(directory.resolve("event" + i + ".avsc"), eventSchema(i, importDepth)));
+        }
+        return files;
+    }
+
+    static String eventSchema(final int eventNumber, final int importDepth) {
+        final String payloadField = importDepth == 0
+                ? ""
+                : String.format(",{\"name\":\"payload\",\"type\":[\"null\",\"%s.Import%s\"],\"default\":null}", IMPORTS_NAMESPACE, importDepth - 1);
+        return String.format("{\"type\":\"record\",\"name\":\"Event%s\",\"namespace\":\"%s\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}%s]}",
+                eventNumber, EVENTS_NAMESPACE, payloadField);
+    }
+
+    /**
+     * Generates subject names evenly spread over the generated schema files, with a small portion of unmatched subjects.
+     */
+    static List<String> subjectNames(final int subjectCount, final int fileCount) {
+        final List<String> subjectNames = new ArrayList<>(subjectCount);
+        for (int i = 0; i < subjectCount; i++) {
+            subjectNames.add(i % UNMATCHED_SUBJECT_RATIO == UNMATCHED_SUBJECT_RATIO - 1
+                    ? "unmatched_subject_" + i
+                    : String.format("topic-%s-%s.Event%s-value", i, EVENTS_NAMESPACE, i % fileCount));
+        }
+        return subjectNames;
+    }
+
+    static void deleteRecursively(final Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static File write(final Path path, final String content) {
+        try {
+            return Files.write(path, content.getBytes(StandardCharsets.UTF_8)).toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
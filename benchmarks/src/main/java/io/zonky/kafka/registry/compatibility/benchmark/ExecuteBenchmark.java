@@ -0,0 +1,124 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckStrategy;
+import io.zonky.kafka.registry.compatibility.mojo.TestSchemaCompatibilityMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end execution of test-compatibility goal against in-process stub schema registry with configurable latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ExecuteBenchmark {
+
+    @Param({"1000", "4000"})
+    private int subjectCount;
+
+    @Param({"100", "600"})
+    private int fileCount;
+
+    @Param({"0", "10"})
+    private int importDepth;
+
+    @Param({"0", "2"})
+    private long latencyMillis;
+
+    @Param({"REMOTE", "LOCAL"})
+    private CompatibilityCheckStrategy compatibilityCheckStrategy;
+
+    private Path directory;
+    private List<String> imports;
+    private List<String> subjectNames;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = BenchmarkFixtures.createDirectory();
+        final Path importsDirectory = Files.createDirectory(directory.resolve("imports"));
+        final Path schemasDirectory = Files.createDirectory(directory.resolve("schemas"));
+        imports = BenchmarkFixtures.writeImports(importsDirectory, importDepth).stream().map(File::getPath).collect(Collectors.toList());
+        BenchmarkFixtures.writeSchemaFiles(schemasDirectory, fileCount, importDepth);
+        subjectNames = BenchmarkFixtures.subjectNames(subjectCount, fileCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void execute() throws MojoExecutionException {
+        newMojo().execute();
+    }
+
+    private TestSchemaCompatibilityMojo newMojo() {
+        final FileSet schemaFileSet = new FileSet();
+        schemaFileSet.setDirectory(directory.resolve("schemas").toString());
+        schemaFileSet.addInclude("**/*.avsc");
+
+        final TestSchemaCompatibilityMojo mojo = new StubRegistryMojo(new StubSchemaRegistryClient(subjectNames, latencyMillis));
+        mojo.setLog(new QuietLog());
+        configure(mojo, "schemaFileSets", new FileSet[]{schemaFileSet});
+        configure(mojo, "imports", imports);
+        configure(mojo, "schemaRegistrySubjectNamePattern", BenchmarkFixtures.SUBJECT_NAME_PATTERN);
+        configure(mojo, "compatibilityCheckStrategy", compatibilityCheckStrategy);
+        return mojo;
+    }
+
+    /**
+     * Sets mojo parameter the same way as maven does - directly to the annotated field.
+     */
+    private static void configure(final Object mojo, final String parameterName, final Object value) {
+        for (Class<?> type = mojo.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                final Field field = type.getDeclaredField(parameterName);
+                field.setAccessible(true);
+                field.set(mojo, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // parameter is declared in one of the superclasses
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("Unknown mojo parameter " + parameterName);
+    }
+
+    private static class StubRegistryMojo extends TestSchemaCompatibilityMojo {
+        private final SchemaRegistryClient client;
+
+        private StubRegistryMojo(final SchemaRegistryClient client) {
+            this.client = client;
+        }
+
+        @Override
+        protected SchemaRegistryClient buildClient() {
+            return client;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of imports - loading the whole import registry (imports listed in reverse dependency order, so that their order has
+ * to be resolved) and creating a parser with all the imported types for a single schema file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ImportRegistryBenchmark {
+
+    @Param({"1", "10", "40"})
+    private int importDepth;
+
+    private Path directory;
+    private List<File> reversedImports;
+    private ImportRegistry importRegistry;
+
+    @Setup
+    public void setUp() {
+        directory = BenchmarkFixtures.createDirectory();
+        reversedImports = new ArrayList<>(BenchmarkFixtures.writeImports(directory, importDepth));
+        Collections.reverse(reversedImports);
+        importRegistry = ImportRegistry.load(reversedImports);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ImportRegistry loadImports() {
+        return ImportRegistry.load(reversedImports);
+    }
+
+    @Benchmark
+    public Schema.Parser newParser() {
+        return importRegistry.newParser();
+    }
+}
@@ -0,0 +1,64 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+import io.zonky.kafka.registry.compatibility.schema.SchemaFileLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of local schema files - reading, parsing and resolving schema type name of every file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SchemaLoadingBenchmark {
+
+    @Param({"100", "600"})
+    private int fileCount;
+
+    @Param({"0", "10", "40"})
+    private int importDepth;
+
+    private Path directory;
+    private List<File> imports;
+    private List<File> schemaFiles;
+
+    @Setup
+    public void setUp() {
+        directory = BenchmarkFixtures.createDirectory();
+        imports = BenchmarkFixtures.writeImports(directory, importDepth);
+        schemaFiles = BenchmarkFixtures.writeSchemaFiles(directory, fileCount, importDepth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void loadSchemaFiles(final Blackhole blackhole) {
+        final SchemaFileLoader loader = new SchemaFileLoader(ImportRegistry.load(imports));
+        for (final File schemaFile : schemaFiles) {
+            blackhole.consume(loader.load(schemaFile));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process schema registry serving fixed subjects, each with a single version. Every call is delayed by configured latency
+ * to simulate network round-trips.
+ */
+class StubSchemaRegistryClient extends MockSchemaRegistryClient {
+
+    private static final Pattern SUBJECT_NAME_PATTERN = Pattern.compile(BenchmarkFixtures.SUBJECT_NAME_PATTERN);
+
+    private final List<String> subjectNames;
+    private final long latencyMillis;
+
+    StubSchemaRegistryClient(final List<String> subjectNames, final long latencyMillis) {
+        this.subjectNames = subjectNames;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Collection<String> getAllSubjects() {
+        simulateLatency();
+        return new ArrayList<>(subjectNames);
+    }
+
+    @Override
+    public boolean testCompatibility(final String subject, final Schema schema) {
+        simulateLatency();
+        return true;
+    }
+
+    @Override
+    public String getCompatibility(final String subject) {
+        simulateLatency();
+        return "BACKWARD";
+    }
+
+    @Override
+    public SchemaMetadata getLatestSchemaMetadata(final String subject) {
+        simulateLatency();
+        final Matcher matcher = SUBJECT_NAME_PATTERN.matcher(subject);
+        final String typeFullName = matcher.find() ? matcher.group("schematypefullname") : BenchmarkFixtures.EVENTS_NAMESPACE + ".Event0";
+        final int eventNumber = Integer.parseInt(typeFullName.substring(typeFullName.lastIndexOf(".Event") + ".Event".length()));
+        return new SchemaMetadata(eventNumber + 1, 1, BenchmarkFixtures.eventSchema(eventNumber, 0));
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
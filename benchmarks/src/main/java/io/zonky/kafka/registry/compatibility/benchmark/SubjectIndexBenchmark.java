@@ -0,0 +1,60 @@
+package io.zonky.kafka.registry.compatibility.benchmark;
+
+import io.zonky.kafka.registry.compatibility.registry.SubjectIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Matching of remote subject names to local schema types - building the subject index and looking up subjects of every file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SubjectIndexBenchmark {
+
+    @Param({"1000", "4000"})
+    private int subjectCount;
+
+    @Param({"100", "600"})
+    private int fileCount;
+
+    private List<String> subjectNames;
+    private Pattern subjectNamePattern;
+    private SubjectIndex subjectIndex;
+
+    @Setup
+    public void setUp() {
+        subjectNames = BenchmarkFixtures.subjectNames(subjectCount, fileCount);
+        subjectNamePattern = Pattern.compile(BenchmarkFixtures.SUBJECT_NAME_PATTERN);
+        subjectIndex = SubjectIndex.build(subjectNames, subjectNamePattern);
+    }
+
+    @Benchmark
+    public SubjectIndex buildIndex() {
+        return SubjectIndex.build(subjectNames, Pattern.compile(BenchmarkFixtures.SUBJECT_NAME_PATTERN));
+    }
+
+    @Benchmark
+    public void matchSubjectsOfAllFiles(final Blackhole blackhole) {
+        for (int i = 0; i < fileCount; i++) {
+            blackhole.consume(subjectIndex.getSubjectNames(BenchmarkFixtures.EVENTS_NAMESPACE + ".Event" + i));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.zonky.kafka.registry.compatibility.cache;
+
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityVerdict;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.registry.RegistryEndpoint;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.SubjectCompatibilityLevels;
+import io.zonky.kafka.registry.compatibility.util.LazySupplier;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Checker that answers from {@link CompatibilityResultCache} whenever the local schema and the remote subject state did not
+ * change since the cached check. Otherwise it delegates to another checker and caches its result.
+ * <p>
+ * Remote subject state is fetched once per subject via cheap metadata lookups (latest version and compatibility level).
+ */
+public class CachingCompatibilityChecker implements CompatibilityChecker {
+
+    private final CompatibilityChecker delegate;
+    private final RegistryInvoker registryInvoker;
+    private final CompatibilityResultCache cache;
+    private final ConcurrentMap<String, Supplier<RemoteSubjectState>> remoteStatesBySubject = new ConcurrentHashMap<>();
+    private final SubjectCompatibilityLevels compatibilityLevels;
+
+    public CachingCompatibilityChecker(final CompatibilityChecker delegate, final RegistryInvoker registryInvoker,
+                                       final CompatibilityResultCache cache) {
+        this.delegate = delegate;
+        this.registryInvoker = registryInvoker;
+        this.cache = cache;
+        this.compatibilityLevels = new SubjectCompatibilityLevels();
+    }
+
+    @Override
+    public CompatibilityVerdict check(final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        final long fingerprint = schema.getFingerprint();
+        final RemoteSubjectState remoteState = remoteState(registrySubjectName);
+
+        final Optional<Boolean> cachedResult = cache.get(registrySubjectName, fingerprint, remoteState);
+        if (cachedResult.isPresent()) {
+            return new CompatibilityVerdict(cachedResult.get(), remoteState.getVersion());
+        }
+
+        final CompatibilityVerdict verdict = delegate.check(registrySubjectName, schema);
+        cache.put(registrySubjectName, fingerprint, remoteState, verdict.isCompatible());
+        return new CompatibilityVerdict(verdict.isCompatible(), remoteState.getVersion());
+    }
+
+    private RemoteSubjectState remoteState(final String registrySubjectName) {
+        return remoteStatesBySubject.computeIfAbsent(registrySubjectName, subject -> new LazySupplier<>(() -> fetchRemoteState(subject))).get();
+    }
+
+    private RemoteSubjectState fetchRemoteState(final String registrySubjectName) {
+        try {
+            final SchemaMetadata latestMetadata = registryInvoker.invoke(RegistryEndpoint.SUBJECT_LATEST_VERSION,
+                    client -> client.getLatestSchemaMetadata(registrySubjectName));
+            return new RemoteSubjectState(latestMetadata.getId(), latestMetadata.getVersion(), compatibilityLevels.get(registrySubjectName, registryInvoker));
+        } catch (IOException | RestClientException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Unable to fetch metadata of subject %s", registrySubjectName), e);
+        }
+    }
+}
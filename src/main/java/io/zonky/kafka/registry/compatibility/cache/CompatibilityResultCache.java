@@ -0,0 +1,254 @@
+package io.zonky.kafka.registry.compatibility.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Persistent cache of compatibility check results.
+ * <p>
+ * Results are keyed by scope (schema registry and check strategy the results were computed by), subject name and fingerprint
+ * of the full local schema definition. Every cached result also remembers
+ * the remote state of the subject (latest version and compatibility level) it was computed for and it's used only while
+ * the remote state stays the same.
+ * <p>
+ * The cache file may be shared by several modules and builds. Saving merges results used by this cache into the current
+ * contents of the file, under an exclusive lock of the file, so results saved by other builds in the meantime are kept.
+ * Results not used for the maximal age are evicted on save, as are the least recently used ones beyond the maximal number
+ * of results. Results computed for an outdated remote state are replaced by the next check of the same schema and subject.
+ */
+public class CompatibilityResultCache {
+
+    /**
+     * Default maximal age of results not used by any build, 30 days.
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    /**
+     * Default maximal number of results in the cache file.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final int FORMAT_VERSION = 3;
+    private static final Gson GSON = new GsonBuilder().create();
+    private static final ConcurrentMap<File, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final String scope;
+    private final long maxAgeMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private CompatibilityResultCache(final File file, final String scope, final long maxAgeMillis, final int maxEntries,
+                                     final LongSupplier clock, final Map<String, Entry> entries) {
+        this.file = file;
+        this.scope = scope;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads cache from given file with default eviction limits.
+     *
+     * @param file  cache file
+     * @param scope identifies schema registry and check strategy, results of other scopes stored in the same file are not used
+     * @see #load(File, String, long, int)
+     */
+    public static CompatibilityResultCache load(final File file, final String scope) {
+        return load(file, scope, DEFAULT_MAX_AGE_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Loads cache from given file. Missing file, unreadable file or file in unsupported format results in an empty cache.
+     *
+     * @param file         cache file
+     * @param scope        identifies schema registry and check strategy, results of other scopes stored in the same file are not used
+     * @param maxAgeMillis results not used for this time are evicted on save
+     * @param maxEntries   maximal number of results kept on save, the least recently used ones are evicted
+     */
+    public static CompatibilityResultCache load(final File file, final String scope, final long maxAgeMillis, final int maxEntries) {
+        return load(file, scope, maxAgeMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    static CompatibilityResultCache load(final File file, final String scope, final long maxAgeMillis, final int maxEntries,
+                                         final LongSupplier clock) {
+        if (maxAgeMillis <= 0 || maxEntries < 1) {
+            throw new IllegalArgumentException(String.format("maxAgeMillis and maxEntries must be positive, were %s and %s", maxAgeMillis, maxEntries));
+        }
+        return new CompatibilityResultCache(file, scope, maxAgeMillis, maxEntries, clock, new ConcurrentHashMap<>(read(file)));
+    }
+
+    /**
+     * Returns cached result of compatibility check, if there is any computed for the same remote subject state.
+     *
+     * @param subjectName       remote schema registry subject name
+     * @param schemaFingerprint fingerprint of full local schema definition
+     * @param remoteState       current state of remote subject
+     */
+    public Optional<Boolean> get(final String subjectName, final long schemaFingerprint, final RemoteSubjectState remoteState) {
+        final String key = key(subjectName, schemaFingerprint);
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.matches(remoteState)) {
+            entry.lastUsedMillis = clock.getAsLong();
+            usedKeys.add(key);
+            hits.incrementAndGet();
+            return Optional.of(entry.compatible);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores result of compatibility check.
+     *
+     * @param subjectName       remote schema registry subject name
+     * @param schemaFingerprint fingerprint of full local schema definition
+     * @param remoteState       state of remote subject the check was performed against
+     * @param compatible        result of the check
+     */
+    public void put(final String subjectName, final long schemaFingerprint, final RemoteSubjectState remoteState, final boolean compatible) {
+        final String key = key(subjectName, schemaFingerprint);
+        entries.put(key, new Entry(remoteState, compatible, clock.getAsLong()));
+        usedKeys.add(key);
+    }
+
+    /**
+     * Merges results used by this cache (the ones found or stored) since the last save into the current contents of the cache
+     * file and evicts results over the limits. Results used by several builds are kept as used by the latest one. The file is locked while it's merged, both against other threads and other processes, and it's
+     * replaced atomically.
+     */
+    public void save() {
+        final File lockFile = new File(file.getPath() + ".lock");
+        synchronized (FILE_MONITORS.computeIfAbsent(FileUtils.canonical(file), f -> new Object())) {
+            try {
+                Files.createDirectories(lockFile.getAbsoluteFile().toPath().getParent());
+                try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock lock = lockChannel.lock()) {
+                    final Map<String, Entry> merged = new HashMap<>(read(file));
+                    final Set<String> savedKeys = new HashSet<>(usedKeys);
+                    // result used more recently by another build wins
+                    savedKeys.forEach(key -> merged.merge(key, entries.get(key), (stored, used) -> stored.lastUsedMillis > used.lastUsedMillis ? stored : used));
+                    evict(merged);
+                    final CacheFile cacheFile = new CacheFile();
+                    cacheFile.version = FORMAT_VERSION;
+                    cacheFile.entries = merged;
+                    FileUtils.writeAtomically(file, tempFile -> {
+                        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                            GSON.toJson(cacheFile, writer);
+                        }
+                    });
+                    usedKeys.removeAll(savedKeys);
+                }
+            } catch (IOException e) {
+                throw new SchemaCompatibilityCheckException("Unable to write compatibility result cache " + file, e);
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes results not used for the maximal age, then the least recently used results beyond the maximal number of results.
+     */
+    private void evict(final Map<String, Entry> merged) {
+        final long oldestUsedMillis = clock.getAsLong() - maxAgeMillis;
+        merged.values().removeIf(entry -> entry.lastUsedMillis < oldestUsedMillis);
+        if (merged.size() > maxEntries) {
+            final List<Map.Entry<String, Entry>> leastRecentlyUsed = new ArrayList<>(merged.entrySet());
+            leastRecentlyUsed.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsedMillis));
+            leastRecentlyUsed.subList(0, merged.size() - maxEntries).forEach(entry -> merged.remove(entry.getKey()));
+        }
+    }
+
+    /**
+     * Reads results stored in given file. Missing file, unreadable file or file in unsupported format results in no results.
+     */
+    private static Map<String, Entry> read(final File file) {
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            final CacheFile cacheFile = GSON.fromJson(reader, CacheFile.class);
+            if (cacheFile != null && cacheFile.version == FORMAT_VERSION && cacheFile.entries != null) {
+                return cacheFile.entries;
+            }
+        } catch (IOException | JsonParseException e) {
+            // unusable cache is replaced on save
+        }
+        return Collections.emptyMap();
+    }
+
+    private String key(final String subjectName, final long schemaFingerprint) {
+        return scope + "|" + subjectName + "|" + Long.toHexString(schemaFingerprint);
+    }
+
+    private static class CacheFile {
+        private int version;
+        private Map<String, Entry> entries;
+    }
+
+    private static class Entry {
+        private int schemaId;
+        private int version;
+        private String compatibilityLevel;
+        private boolean compatible;
+        private volatile long lastUsedMillis;
+
+        private Entry(final RemoteSubjectState remoteState, final boolean compatible, final long lastUsedMillis) {
+            this.schemaId = remoteState.getSchemaId();
+            this.version = remoteState.getVersion();
+            this.compatibilityLevel = remoteState.getCompatibilityLevel();
+            this.compatible = compatible;
+            this.lastUsedMillis = lastUsedMillis;
+        }
+
+        private boolean matches(final RemoteSubjectState remoteState) {
+            return schemaId == remoteState.getSchemaId()
+                    && version == remoteState.getVersion()
+                    && Objects.equals(compatibilityLevel, remoteState.getCompatibilityLevel());
+        }
+    }
+}
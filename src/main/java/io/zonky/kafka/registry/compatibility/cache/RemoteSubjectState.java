@@ -0,0 +1,29 @@
+package io.zonky.kafka.registry.compatibility.cache;
+
+/**
+ * State of remote schema registry subject, which determines results of compatibility checks against it.
+ */
+public class RemoteSubjectState {
+
+    private final int schemaId;
+    private final int version;
+    private final String compatibilityLevel;
+
+    public RemoteSubjectState(final int schemaId, final int version, final String compatibilityLevel) {
+        this.schemaId = schemaId;
+        this.version = version;
+        this.compatibilityLevel = compatibilityLevel;
+    }
+
+    public int getSchemaId() {
+        return schemaId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getCompatibilityLevel() {
+        return compatibilityLevel;
+    }
+}
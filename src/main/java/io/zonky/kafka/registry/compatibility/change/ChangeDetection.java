@@ -0,0 +1,23 @@
+package io.zonky.kafka.registry.compatibility.change;
+
+/**
+ * Way of detecting local schema files changed since previous check. Only changed files and files depending on changed imports
+ * are checked.
+ */
+public enum ChangeDetection {
+
+    /**
+     * All the schema files are checked.
+     */
+    NONE,
+
+    /**
+     * Files changed since merge-base of HEAD and configured git ref are checked, including uncommitted and untracked files.
+     */
+    GIT,
+
+    /**
+     * Files whose content differs from manifest of content hashes saved by previous successful check are checked.
+     */
+    MANIFEST
+}
@@ -0,0 +1,124 @@
+package io.zonky.kafka.registry.compatibility.change;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Persistent manifest of SHA-256 content hashes of local schema files, used to detect files changed since previous successful
+ * check.
+ */
+public class FileHashManifest {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final File file;
+    private final Map<String, String> hashesByPath;
+
+    private FileHashManifest(final File file, final Map<String, String> hashesByPath) {
+        this.file = file;
+        this.hashesByPath = hashesByPath;
+    }
+
+    /**
+     * Loads manifest from given file. Missing file, unreadable file or file in unsupported format results in an empty manifest,
+     * so all the files are considered changed.
+     *
+     * @param file manifest file
+     */
+    public static FileHashManifest load(final File file) {
+        final Map<String, String> hashesByPath = new TreeMap<>();
+        if (file.isFile()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                final ManifestFile manifestFile = GSON.fromJson(reader, ManifestFile.class);
+                if (manifestFile != null && manifestFile.version == FORMAT_VERSION && manifestFile.hashes != null) {
+                    hashesByPath.putAll(manifestFile.hashes);
+                }
+            } catch (IOException | JsonParseException e) {
+                hashesByPath.clear();
+            }
+        }
+        return new FileHashManifest(file, hashesByPath);
+    }
+
+    /**
+     * Returns canonical files whose content differs from the manifest and updates the manifest with current content hashes
+     * of all given files. The updated manifest is written by {@link #save()}.
+     *
+     * @param files files to be compared with the manifest
+     */
+    public synchronized Set<File> detectChanges(final Collection<File> files) {
+        final Set<File> changedFiles = new LinkedHashSet<>();
+        for (final File file : files) {
+            final File canonicalFile = FileUtils.canonical(file);
+            final String hash = hash(canonicalFile);
+            if (!hash.equals(hashesByPath.put(canonicalFile.getPath(), hash))) {
+                changedFiles.add(canonicalFile);
+            }
+        }
+        return changedFiles;
+    }
+
+    /**
+     * Writes the manifest to its file atomically.
+     */
+    public synchronized void save() {
+        final ManifestFile manifestFile = new ManifestFile();
+        manifestFile.version = FORMAT_VERSION;
+        manifestFile.hashes = hashesByPath;
+        try {
+            FileUtils.writeAtomically(file, tempFile -> {
+                try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    GSON.toJson(manifestFile, writer);
+                }
+            });
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write change manifest " + file, e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private static String hash(final File file) {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            final StringBuilder hash = new StringBuilder();
+            for (final byte b : digest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new SchemaCompatibilityCheckException("Unable to compute hash of " + file, e);
+        }
+    }
+
+    private static class ManifestFile {
+        private int version;
+        private Map<String, String> hashes;
+    }
+}
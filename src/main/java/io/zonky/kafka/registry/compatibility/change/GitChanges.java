@@ -0,0 +1,78 @@
+package io.zonky.kafka.registry.compatibility.change;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Detects files changed in git working tree since merge-base of HEAD and given ref by running git executable.
+ */
+public final class GitChanges {
+
+    private GitChanges() {
+    }
+
+    /**
+     * Returns canonical files changed since merge-base of HEAD and given ref - committed, uncommitted and untracked ones.
+     *
+     * @param directory any directory within git working tree
+     * @param baseRef   git ref the changes are compared to (e.g. origin/master)
+     */
+    public static Set<File> detect(final File directory, final String baseRef) {
+        final File rootDirectory = new File(git(directory, "rev-parse", "--show-toplevel").trim());
+        final String mergeBase = git(rootDirectory, "merge-base", "HEAD", baseRef).trim();
+
+        final Set<File> changedFiles = new LinkedHashSet<>();
+        addFiles(changedFiles, rootDirectory, git(rootDirectory, "diff", "--name-only", "--no-renames", "-z", mergeBase));
+        addFiles(changedFiles, rootDirectory, git(rootDirectory, "ls-files", "--others", "--exclude-standard", "--full-name", "-z"));
+        return changedFiles;
+    }
+
+    /**
+     * Adds files listed by git with -z option - paths relative to the root directory, terminated by NUL and never quoted.
+     */
+    private static void addFiles(final Set<File> files, final File rootDirectory, final String output) {
+        for (final String path : output.split("\0")) {
+            if (!path.isEmpty()) {
+                files.add(FileUtils.canonical(new File(rootDirectory, path)));
+            }
+        }
+    }
+
+    private static String git(final File directory, final String... arguments) {
+        final List<String> command = new ArrayList<>(arguments.length + 1);
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        try {
+            final Process process = new ProcessBuilder(command).directory(directory).start();
+            process.getOutputStream().close();
+            final FutureTask<String> error = new FutureTask<>(() -> FileUtils.readFully(process.getErrorStream()));
+            final Thread errorReader = new Thread(error, "git-error-reader");
+            errorReader.setDaemon(true);
+            errorReader.start();
+            final String output = FileUtils.readFully(process.getInputStream());
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new SchemaCompatibilityCheckException(String.format("Command '%s' failed with exit code %s: %s",
+                        String.join(" ", command), exitCode, error.get().trim()), null);
+            }
+            return output;
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to run " + String.join(" ", command), e);
+        } catch (ExecutionException e) {
+            throw new SchemaCompatibilityCheckException("Unable to read error output of " + String.join(" ", command), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaCompatibilityCheckException("Interrupted while running " + String.join(" ", command), e);
+        }
+    }
+}
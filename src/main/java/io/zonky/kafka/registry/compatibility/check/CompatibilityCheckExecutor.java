@@ -0,0 +1,168 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executes compatibility checks of (schema file, registry subject) pairs concurrently using a fixed pool of workers.
+ * <p>
+ * Number of requests running concurrently against single registry host is bounded by {@link RegistryHostLimiter}.
+ * Results are added to their contexts in the same order as if the checks were performed sequentially.
+ * <p>
+ * In fail-fast mode the first failed check aborts all the others. Otherwise failed checks are recorded as failed results
+ * and the remaining checks continue.
+ * <p>
+ * Every result is passed to the result listener as soon as its check completes, in order of completion.
+ */
+public class CompatibilityCheckExecutor implements AutoCloseable {
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executorService;
+    private final RegistryHostLimiter hostLimiter;
+    private final String registryHost;
+    private final CompatibilityChecker checker;
+    private final boolean failFast;
+    private final Consumer<CompatibilityCheckResult> resultListener;
+    private final Log log;
+
+    /**
+     * @param threads        number of worker threads performing the checks
+     * @param hostLimiter    limiter bounding concurrent requests per registry host
+     * @param registryHost   host of the schema registry the checks are performed against
+     * @param checker        strategy performing single compatibility check
+     * @param failFast       whether the first failed check should abort all the others
+     * @param resultListener listener notified about every result, called concurrently by worker threads
+     * @param log            maven logger
+     */
+    public CompatibilityCheckExecutor(final int threads, final RegistryHostLimiter hostLimiter, final String registryHost,
+                                      final CompatibilityChecker checker, final boolean failFast,
+                                      final Consumer<CompatibilityCheckResult> resultListener, final Log log) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive, was " + threads);
+        }
+        this.executorService = Executors.newFixedThreadPool(threads, workerThreadFactory());
+        this.hostLimiter = hostLimiter;
+        this.registryHost = registryHost;
+        this.checker = checker;
+        this.failFast = failFast;
+        this.resultListener = resultListener;
+        this.log = log;
+    }
+
+    /**
+     * Checks every context against all its matching registry subjects and adds check results to the contexts.
+     * In fail-fast mode fails on the first check which ends with an exception, remaining checks are cancelled.
+     *
+     * @param contexts contexts with schema and matching registry subject names already resolved
+     */
+    public void check(final List<SchemaFileCheckingContext> contexts) {
+        final List<List<Future<CompatibilityCheckResult>>> futuresByContext = new ArrayList<>(contexts.size());
+        for (final SchemaFileCheckingContext context : contexts) {
+            final List<Future<CompatibilityCheckResult>> futures = new ArrayList<>(context.getMatchingRegistrySubjectNames().size());
+            for (final String registrySubjectName : context.getMatchingRegistrySubjectNames()) {
+                futures.add(executorService.submit(() -> notifyListener(checkSingle(context, registrySubjectName))));
+            }
+            futuresByContext.add(futures);
+        }
+
+        try {
+            for (int i = 0; i < contexts.size(); i++) {
+                for (final Future<CompatibilityCheckResult> future : futuresByContext.get(i)) {
+                    contexts.get(i).addCompatiblityCheckResult(await(future));
+                }
+            }
+        } catch (RuntimeException e) {
+            futuresByContext.forEach(futures -> futures.forEach(future -> future.cancel(true)));
+            throw e;
+        }
+    }
+
+    private CompatibilityCheckResult checkSingle(final SchemaFileCheckingContext context, final String registrySubjectName) throws InterruptedException {
+        final String schemaTypeFullName = context.getSchemaTypeFullName();
+        final LocalSchema schema = context.getSchema();
+        final String schemaFilePath = context.getFile().getPath();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Checking compatibility of '%s' against subject '%s': %s", schemaTypeFullName, registrySubjectName, schema.getDefinition()));
+        }
+        hostLimiter.acquire(registryHost);
+        final long start = System.nanoTime();
+        try {
+            final CompatibilityVerdict verdict = checker.check(registrySubjectName, schema);
+            if (!verdict.isCompatible() && log.isDebugEnabled()) {
+                log.debug(String.format("Incompatibility found between schema file %s and registry subject %s", schemaFilePath, registrySubjectName));
+            }
+            return new CompatibilityCheckResult(schemaFilePath, registrySubjectName, schemaTypeFullName, verdict.isCompatible(),
+                    verdict.getRemoteVersion(), System.nanoTime() - start);
+        } catch (IOException | RestClientException e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Exception found between schema file %s and registry subject %s", schemaFilePath, registrySubjectName));
+            }
+            return failed(context, registrySubjectName, new SchemaCompatibilityCheckException("Compatibility check failed", e), System.nanoTime() - start);
+        } catch (SchemaCompatibilityCheckException e) {
+            return failed(context, registrySubjectName, e, System.nanoTime() - start);
+        } finally {
+            hostLimiter.release(registryHost);
+        }
+    }
+
+    private CompatibilityCheckResult notifyListener(final CompatibilityCheckResult result) {
+        resultListener.accept(result);
+        return result;
+    }
+
+    private CompatibilityCheckResult failed(final SchemaFileCheckingContext context, final String registrySubjectName,
+                                            final SchemaCompatibilityCheckException e, final long latencyNanos) {
+        if (failFast) {
+            throw e;
+        }
+        final String failure = e.getCause() == null ? e.getMessage() : String.valueOf(e.getCause().getMessage());
+        log.warn(String.format("Compatibility check of '%s' against subject '%s' failed: %s", context.getSchemaTypeFullName(), registrySubjectName, failure));
+        return CompatibilityCheckResult.failed(context.getFile().getPath(), registrySubjectName, context.getSchemaTypeFullName(), failure, latencyNanos);
+    }
+
+    private static <T> T await(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaCompatibilityCheckException("Interrupted while waiting for compatibility check", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SchemaCompatibilityCheckException) {
+                throw (SchemaCompatibilityCheckException) e.getCause();
+            }
+            throw new SchemaCompatibilityCheckException("Compatibility check failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        final int poolNumber = POOL_COUNTER.incrementAndGet();
+        final AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, String.format("schema-compatibility-check-%s-%s", poolNumber, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
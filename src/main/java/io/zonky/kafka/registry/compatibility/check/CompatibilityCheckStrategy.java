@@ -0,0 +1,16 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+/**
+ * Strategies of performing compatibility checks.
+ */
+public enum CompatibilityCheckStrategy {
+    /**
+     * Every (schema, subject) pair is sent to the compatibility endpoint of remote schema registry.
+     */
+    REMOTE,
+    /**
+     * Versions of every matched subject are fetched once, compatibility is evaluated locally according to the compatibility
+     * level of the subject.
+     */
+    LOCAL
+}
@@ -0,0 +1,27 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+
+import java.io.IOException;
+
+/**
+ * Strategy performing compatibility check of a single local schema against a single remote registry subject.
+ * <p>
+ * Implementations must be thread-safe, as they're called concurrently by {@link CompatibilityCheckExecutor}. Checkers holding
+ * resources (e.g. threads) release them on {@link #close()}.
+ */
+public interface CompatibilityChecker extends AutoCloseable {
+
+    /**
+     * Checks whether schema is compatible with given remote schema registry subject.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param schema              local schema being checked
+     */
+    CompatibilityVerdict check(String registrySubjectName, LocalSchema schema) throws IOException, RestClientException;
+
+    @Override
+    default void close() {
+    }
+}
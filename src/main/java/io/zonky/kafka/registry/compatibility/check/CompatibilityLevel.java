@@ -0,0 +1,72 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compatibility levels supported by schema registry, evaluated locally via avro's {@link SchemaCompatibility}.
+ */
+public enum CompatibilityLevel {
+    NONE(false, false, false),
+    BACKWARD(true, false, false),
+    BACKWARD_TRANSITIVE(true, false, true),
+    FORWARD(false, true, false),
+    FORWARD_TRANSITIVE(false, true, true),
+    FULL(true, true, false),
+    FULL_TRANSITIVE(true, true, true);
+
+    private final boolean backward;
+    private final boolean forward;
+    private final boolean transitive;
+
+    CompatibilityLevel(final boolean backward, final boolean forward, final boolean transitive) {
+        this.backward = backward;
+        this.forward = forward;
+        this.transitive = transitive;
+    }
+
+    /**
+     * Returns compatibility level of given name, as returned by schema registry's config endpoint.
+     *
+     * @param name name of compatibility level, case insensitive
+     */
+    public static CompatibilityLevel forName(final String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Compatibility level must not be null");
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Whether new schema must be compatible with all previous versions, not just the latest one.
+     */
+    public boolean isTransitive() {
+        return transitive;
+    }
+
+    /**
+     * Checks whether new schema is compatible with previous versions of the subject.
+     *
+     * @param newSchema        schema being checked
+     * @param previousSchemas  previous versions of the subject, the latest first
+     */
+    public boolean isCompatible(final Schema newSchema, final List<Schema> previousSchemas) {
+        final List<Schema> checkedSchemas = transitive || previousSchemas.isEmpty() ? previousSchemas : previousSchemas.subList(0, 1);
+        for (final Schema previousSchema : checkedSchemas) {
+            if (backward && !canRead(newSchema, previousSchema)) {
+                return false;
+            }
+            if (forward && !canRead(previousSchema, newSchema)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canRead(final Schema reader, final Schema writer) {
+        return SchemaCompatibility.checkReaderWriterCompatibility(reader, writer).getType() == SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE;
+    }
+}
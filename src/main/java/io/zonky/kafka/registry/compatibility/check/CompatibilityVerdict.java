@@ -0,0 +1,27 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+/**
+ * Outcome of a single compatibility check together with the remote subject version it was checked against.
+ */
+public class CompatibilityVerdict {
+
+    private final boolean compatible;
+    private final Integer remoteVersion;
+
+    /**
+     * @param compatible    whether the schema is compatible with the subject
+     * @param remoteVersion version of the subject the schema was checked against, or null if not known
+     */
+    public CompatibilityVerdict(final boolean compatible, final Integer remoteVersion) {
+        this.compatible = compatible;
+        this.remoteVersion = remoteVersion;
+    }
+
+    public boolean isCompatible() {
+        return compatible;
+    }
+
+    public Integer getRemoteVersion() {
+        return remoteVersion;
+    }
+}
@@ -0,0 +1,43 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSchemaCache;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSubject;
+
+import java.io.IOException;
+
+/**
+ * Checker evaluating compatibility locally against prefetched versions of remote subjects, according to compatibility level
+ * configured for the subject in remote schema registry.
+ * <p>
+ * Only Avro schemas are evaluated locally, schemas in other formats are checked by remote schema registry.
+ */
+public class LocalCompatibilityChecker implements CompatibilityChecker {
+
+    private final RemoteSchemaCache remoteSchemaCache;
+    private final RegistryInvoker registryInvoker;
+    private final CompatibilityChecker remoteChecker;
+
+    /**
+     * @param remoteSchemaCache cache of remote subjects, may be shared by several executions
+     * @param registryInvoker   invoker performing schema registry calls
+     */
+    public LocalCompatibilityChecker(final RemoteSchemaCache remoteSchemaCache, final RegistryInvoker registryInvoker) {
+        this.remoteSchemaCache = remoteSchemaCache;
+        this.registryInvoker = registryInvoker;
+        this.remoteChecker = new RemoteCompatibilityChecker(registryInvoker);
+    }
+
+    @Override
+    public CompatibilityVerdict check(final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        if (!(schema instanceof AvroLocalSchema)) {
+            return remoteChecker.check(registrySubjectName, schema);
+        }
+        final RemoteSubject remoteSubject = remoteSchemaCache.get(registrySubjectName, registryInvoker);
+        final boolean compatible = remoteSubject.getCompatibilityLevel().isCompatible(((AvroLocalSchema) schema).getSchema(), remoteSubject.getSchemas());
+        return new CompatibilityVerdict(compatible, remoteSubject.getLatestVersion());
+    }
+}
@@ -0,0 +1,78 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits number of concurrently running requests against a single schema registry host.
+ */
+public class RegistryHostLimiter {
+
+    private final int maxConcurrentRequestsPerHost;
+    private final ConcurrentMap<String, Semaphore> semaphoresByHost = new ConcurrentHashMap<>();
+
+    public RegistryHostLimiter(final int maxConcurrentRequestsPerHost) {
+        if (maxConcurrentRequestsPerHost < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequestsPerHost must be positive, was " + maxConcurrentRequestsPerHost);
+        }
+        this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+    }
+
+    /**
+     * Blocks until a request against given host may be performed.
+     *
+     * @param host registry host, as returned by {@link #hostOf(String)}
+     */
+    public void acquire(final String host) throws InterruptedException {
+        semaphore(host).acquire();
+    }
+
+    /**
+     * Acquires permit of a request against given host only if it's available right away and no other request is waiting for it.
+     *
+     * @param host registry host, as returned by {@link #hostOf(String)}
+     * @return whether the permit was acquired
+     */
+    public boolean tryAcquire(final String host) {
+        try {
+            // timed variant honors fairness, so waiting requests are never overtaken
+            return semaphore(host).tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Releases permit previously acquired via {@link #acquire(String)} or {@link #tryAcquire(String)}.
+     *
+     * @param host registry host, as returned by {@link #hostOf(String)}
+     */
+    public void release(final String host) {
+        semaphore(host).release();
+    }
+
+    private Semaphore semaphore(final String host) {
+        return semaphoresByHost.computeIfAbsent(host, h -> new Semaphore(maxConcurrentRequestsPerHost, true));
+    }
+
+    /**
+     * Extracts host (and port, if defined) from schema registry url. Unparseable urls are used as they are.
+     *
+     * @param registryUrl schema registry url
+     */
+    public static String hostOf(final String registryUrl) {
+        try {
+            final URI uri = URI.create(registryUrl.trim());
+            if (uri.getHost() == null) {
+                return registryUrl;
+            }
+            return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return registryUrl;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.registry.RegistryEndpoint;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+
+import java.io.IOException;
+
+/**
+ * Checker delegating compatibility checks to the compatibility endpoint of remote schema registry. The endpoint checks against
+ * the latest version without reporting its number, so the remote version of the verdicts is not known.
+ */
+public class RemoteCompatibilityChecker implements CompatibilityChecker {
+
+    private final RegistryInvoker registryInvoker;
+
+    public RemoteCompatibilityChecker(final RegistryInvoker registryInvoker) {
+        this.registryInvoker = registryInvoker;
+    }
+
+    @Override
+    public CompatibilityVerdict check(final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        final boolean compatible = registryInvoker.invoke(RegistryEndpoint.COMPATIBILITY,
+                client -> schema.getFormat().testCompatibility(client, registrySubjectName, schema));
+        return new CompatibilityVerdict(compatible, null);
+    }
+}
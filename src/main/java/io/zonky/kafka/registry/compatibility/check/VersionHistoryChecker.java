@@ -0,0 +1,165 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSchemaCache;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSchemaVersion;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checker which, once another checker finds the schema compatible, additionally checks Avro schemas against historical versions
+ * of the subject - the given number of the latest versions or all of them. Direction of the checks (backward, forward or both)
+ * follows compatibility level of the subject, subjects with compatibility level NONE are not checked.
+ * <p>
+ * Versions are fetched via {@link RemoteSchemaCache}, so every version is fetched once per run and every distinct schema is parsed
+ * once. Versions of the history which weren't fetched yet are prefetched concurrently by a pool of prefetching threads, every
+ * prefetch takes a free registry host permit of {@link RegistryHostLimiter} without waiting for it, the checking thread fetches
+ * the remaining versions itself within the permit held by the check. Once the whole history is fetched, compatibility with every
+ * distinct schema id of the history is evaluated, the latest versions first. Compatibility of a local schema with a remote
+ * schema is evaluated once per schema id (and fingerprint of the full local schema definition), no matter how many subjects and
+ * versions share it.
+ */
+public class VersionHistoryChecker implements CompatibilityChecker {
+
+    /**
+     * History depth selecting all the versions of a subject.
+     */
+    public static final int ALL_VERSIONS = -1;
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final CompatibilityChecker delegate;
+    private final RemoteSchemaCache remoteSchemaCache;
+    private final RegistryInvoker registryInvoker;
+    private final int historyDepth;
+    private final RegistryHostLimiter hostLimiter;
+    private final String registryHost;
+    private final ExecutorService prefetchExecutor;
+    private final ConcurrentMap<String, Boolean> compatibilityBySchemaPair = new ConcurrentHashMap<>();
+    private final AtomicLong evaluations = new AtomicLong();
+
+    /**
+     * @param delegate          checker performing the check against the latest version
+     * @param remoteSchemaCache cache of remote subjects, may be shared by several executions
+     * @param registryInvoker   invoker performing schema registry calls
+     * @param historyDepth      number of the latest versions to check against, or {@link #ALL_VERSIONS}
+     * @param hostLimiter       limiter bounding concurrent requests per registry host
+     * @param registryHost      host of the schema registry the checks are performed against
+     * @param prefetchThreads   number of threads prefetching versions of the history
+     */
+    public VersionHistoryChecker(final CompatibilityChecker delegate, final RemoteSchemaCache remoteSchemaCache, final RegistryInvoker registryInvoker,
+                                 final int historyDepth, final RegistryHostLimiter hostLimiter, final String registryHost, final int prefetchThreads) {
+        if (historyDepth < 1 && historyDepth != ALL_VERSIONS) {
+            throw new IllegalArgumentException("historyDepth must be positive or " + ALL_VERSIONS + ", was " + historyDepth);
+        }
+        if (prefetchThreads < 1) {
+            throw new IllegalArgumentException("prefetchThreads must be positive, was " + prefetchThreads);
+        }
+        this.delegate = delegate;
+        this.remoteSchemaCache = remoteSchemaCache;
+        this.registryInvoker = registryInvoker;
+        this.historyDepth = historyDepth;
+        this.hostLimiter = hostLimiter;
+        this.registryHost = registryHost;
+        this.prefetchExecutor = Executors.newFixedThreadPool(prefetchThreads, prefetchThreadFactory());
+    }
+
+    /**
+     * Returns verdict of the delegate, unless the schema is incompatible with one of the historical versions. In that case
+     * the incompatible version is returned as the remote version.
+     */
+    @Override
+    public CompatibilityVerdict check(final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        final CompatibilityVerdict verdict = delegate.check(registrySubjectName, schema);
+        if (!verdict.isCompatible() || !(schema instanceof AvroLocalSchema)) {
+            return verdict;
+        }
+        final CompatibilityLevel compatibilityLevel = remoteSchemaCache.getCompatibilityLevel(registrySubjectName, registryInvoker);
+        if (compatibilityLevel == CompatibilityLevel.NONE) {
+            return verdict;
+        }
+
+        final List<Integer> versions = remoteSchemaCache.getVersionNumbers(registrySubjectName, registryInvoker);
+        final List<Integer> history = historyDepth == ALL_VERSIONS || historyDepth >= versions.size() ? versions : versions.subList(0, historyDepth);
+
+        prefetch(registrySubjectName, history);
+        final Map<Integer, RemoteSchemaVersion> latestVersionsBySchemaId = new LinkedHashMap<>();
+        for (final Integer version : history) {
+            final RemoteSchemaVersion remoteVersion = remoteSchemaCache.getVersion(registrySubjectName, version, registryInvoker);
+            latestVersionsBySchemaId.putIfAbsent(remoteVersion.getSchemaId(), remoteVersion);
+        }
+        for (final RemoteSchemaVersion remoteVersion : latestVersionsBySchemaId.values()) {
+            if (!isCompatible((AvroLocalSchema) schema, remoteVersion, compatibilityLevel)) {
+                return new CompatibilityVerdict(false, remoteVersion.getVersion());
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * Number of evaluations of compatibility with a remote schema performed so far.
+     */
+    long getEvaluations() {
+        return evaluations.get();
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+        delegate.close();
+    }
+
+    /**
+     * Submits fetches of all the versions of the history but the latest one, which is fetched by the checking thread right away.
+     * Fetches which don't get a free host permit are skipped and the checking thread performs them itself, so the prefetching
+     * threads never wait for permits held by checking threads waiting for the prefetched versions.
+     */
+    private void prefetch(final String registrySubjectName, final List<Integer> history) {
+        for (final Integer version : history.subList(Math.min(1, history.size()), history.size())) {
+            prefetchExecutor.execute(() -> {
+                if (!hostLimiter.tryAcquire(registryHost)) {
+                    return;
+                }
+                try {
+                    remoteSchemaCache.getVersion(registrySubjectName, version, registryInvoker);
+                } catch (RuntimeException e) {
+                    // the checking thread fetches the version once more and reports the failure
+                } finally {
+                    hostLimiter.release(registryHost);
+                }
+            });
+        }
+    }
+
+    private boolean isCompatible(final AvroLocalSchema schema, final RemoteSchemaVersion remoteVersion, final CompatibilityLevel compatibilityLevel) {
+        final String schemaPair = Long.toHexString(schema.getFingerprint()) + "|" + remoteVersion.getSchemaId() + "|" + compatibilityLevel;
+        return compatibilityBySchemaPair.computeIfAbsent(schemaPair, pair -> {
+            evaluations.incrementAndGet();
+            return compatibilityLevel.isCompatible(schema.getSchema(), Collections.singletonList(remoteVersion.getSchema()));
+        });
+    }
+
+    private static ThreadFactory prefetchThreadFactory() {
+        final int poolNumber = POOL_COUNTER.incrementAndGet();
+        final AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, String.format("schema-history-prefetch-%s-%s", poolNumber, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,31 +1,88 @@
 package io.zonky.kafka.registry.compatibility.domain;
 
-import org.apache.avro.Schema;
-
 /**
  * Domain object holding the result of compatibility check of a single local schema against a single remote registry subject.
+ * Check which ended with an error holds the error message and is neither compatible nor incompatible.
+ * <p>
+ * The result is a compact record, it doesn't reference the parsed schema, so parsed schemas may be released once checked.
  */
 public class CompatibilityCheckResult {
 
+    private final String schemaFilePath;
     private final String registrySubjectName;
-    private final Schema schema;
+    private final String schemaTypeFullName;
     private final boolean compatible;
+    private final String failure;
+    private final Integer remoteVersion;
+    private final long latencyNanos;
+
+    /**
+     * @param schemaFilePath      path of the checked schema file
+     * @param registrySubjectName name of the checked subject
+     * @param schemaTypeFullName  full name of the checked schema type
+     * @param compatible          whether the schema is compatible with the subject
+     * @param remoteVersion       version of the subject the schema was checked against, or null if not known
+     * @param latencyNanos        duration of the check
+     */
+    public CompatibilityCheckResult(final String schemaFilePath, final String registrySubjectName, final String schemaTypeFullName,
+                                    final boolean compatible, final Integer remoteVersion, final long latencyNanos) {
+        this(schemaFilePath, registrySubjectName, schemaTypeFullName, compatible, null, remoteVersion, latencyNanos);
+    }
 
-    public CompatibilityCheckResult(final String registrySubjectName, final Schema schema, final boolean compatible) {
+    private CompatibilityCheckResult(final String schemaFilePath, final String registrySubjectName, final String schemaTypeFullName,
+                                     final boolean compatible, final String failure, final Integer remoteVersion, final long latencyNanos) {
+        this.schemaFilePath = schemaFilePath;
         this.registrySubjectName = registrySubjectName;
-        this.schema = schema;
+        this.schemaTypeFullName = schemaTypeFullName;
         this.compatible = compatible;
+        this.failure = failure;
+        this.remoteVersion = remoteVersion;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * Creates result of a check which ended with an error.
+     *
+     * @param schemaFilePath      path of the checked schema file
+     * @param registrySubjectName name of the checked subject
+     * @param schemaTypeFullName  full name of the checked schema type
+     * @param failure             message describing the error
+     * @param latencyNanos        duration of the check
+     */
+    public static CompatibilityCheckResult failed(final String schemaFilePath, final String registrySubjectName, final String schemaTypeFullName,
+                                                  final String failure, final long latencyNanos) {
+        return new CompatibilityCheckResult(schemaFilePath, registrySubjectName, schemaTypeFullName, false, failure, null, latencyNanos);
+    }
+
+    public String getSchemaFilePath() {
+        return schemaFilePath;
     }
 
     public String getRegistrySubjectName() {
         return registrySubjectName;
     }
 
-    public Schema getSchema() {
-        return schema;
+    public String getSchemaTypeFullName() {
+        return schemaTypeFullName;
     }
 
     public boolean isCompatible() {
         return compatible;
     }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public Integer getRemoteVersion() {
+        return remoteVersion;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
 }
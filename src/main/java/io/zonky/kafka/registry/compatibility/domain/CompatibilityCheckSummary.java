@@ -0,0 +1,47 @@
+package io.zonky.kafka.registry.compatibility.domain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of compatibility checks of all the schema files. Only incompatible and failed results and files without any check
+ * are retained, so the summary stays small while the checked contexts are released.
+ */
+public class CompatibilityCheckSummary {
+
+    private final List<CompatibilityCheckResult> incompatibilities = new ArrayList<>();
+    private final List<CompatibilityCheckResult> failures = new ArrayList<>();
+    private final List<File> filesWithNoChecks = new ArrayList<>();
+    private int checkedFileCount;
+
+    /**
+     * Adds results of all the checks of given context.
+     *
+     * @param context checked context
+     */
+    public void add(final SchemaFileCheckingContext context) {
+        checkedFileCount++;
+        incompatibilities.addAll(context.getCompatibilityCheckResults(false));
+        failures.addAll(context.getFailedCompatibilityCheckResults());
+        if (context.getCompatibilityCheckResults().isEmpty()) {
+            filesWithNoChecks.add(context.getFile());
+        }
+    }
+
+    public List<CompatibilityCheckResult> getIncompatibilities() {
+        return incompatibilities;
+    }
+
+    public List<CompatibilityCheckResult> getFailures() {
+        return failures;
+    }
+
+    public List<File> getFilesWithNoChecks() {
+        return filesWithNoChecks;
+    }
+
+    public int getCheckedFileCount() {
+        return checkedFileCount;
+    }
+}
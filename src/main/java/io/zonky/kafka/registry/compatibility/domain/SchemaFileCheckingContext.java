@@ -1,10 +1,10 @@
 package io.zonky.kafka.registry.compatibility.domain;
 
-import org.apache.avro.Schema;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,13 +14,14 @@ import java.util.stream.Collectors;
 public class SchemaFileCheckingContext {
     private final File file;
     private final String schemaTypeFullName;
-    private final List<String> matchingRegistrySubjectNames = new LinkedList<>();
-    private final List<CompatibilityCheckResult> compatibilityCheckResults = new LinkedList<>();
-    private Schema schema;
+    private final List<String> matchingRegistrySubjectNames = new ArrayList<>();
+    private final List<CompatibilityCheckResult> compatibilityCheckResults = new ArrayList<>();
+    private final LocalSchema schema;
 
-    public SchemaFileCheckingContext(final File file, final String schemaTypeFullName) {
+    public SchemaFileCheckingContext(final File file, final LocalSchema schema) {
         this.file = file;
-        this.schemaTypeFullName = schemaTypeFullName;
+        this.schema = schema;
+        this.schemaTypeFullName = schema.getTypeFullName();
     }
 
     public String getSchemaTypeFullName() {
@@ -48,14 +49,14 @@ public class SchemaFileCheckingContext {
     }
 
     public List<CompatibilityCheckResult> getCompatibilityCheckResults(final boolean compatible) {
-        return compatibilityCheckResults.stream().filter(res -> res.isCompatible() == compatible).collect(Collectors.toList());
+        return compatibilityCheckResults.stream().filter(res -> !res.isFailed() && res.isCompatible() == compatible).collect(Collectors.toList());
     }
 
-    public void setSchema(final Schema schema) {
-        this.schema = schema;
+    public List<CompatibilityCheckResult> getFailedCompatibilityCheckResults() {
+        return compatibilityCheckResults.stream().filter(CompatibilityCheckResult::isFailed).collect(Collectors.toList());
     }
 
-    public Schema getSchema() {
+    public LocalSchema getSchema() {
         return schema;
     }
 }
@@ -0,0 +1,47 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local schema in Avro format.
+ */
+public class AvroLocalSchema implements LocalSchema {
+
+    private final SchemaFormat format;
+    private final Schema schema;
+    private final long fingerprint;
+
+    public AvroLocalSchema(final SchemaFormat format, final Schema schema) {
+        this.format = format;
+        this.schema = schema;
+        // parsing canonical form drops defaults, aliases and logical types, which all affect compatibility
+        this.fingerprint = SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public SchemaFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public String getTypeFullName() {
+        return schema.getFullName();
+    }
+
+    @Override
+    public String getDefinition() {
+        return schema.toString();
+    }
+
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+}
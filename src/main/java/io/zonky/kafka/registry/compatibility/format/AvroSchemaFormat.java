@@ -0,0 +1,49 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+import org.apache.avro.SchemaParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Avro schemas (*.avsc), which may reference types defined in imports.
+ */
+public class AvroSchemaFormat implements SchemaFormat {
+
+    public static final String SCHEMA_TYPE = "AVRO";
+
+    @Override
+    public String getSchemaType() {
+        return SCHEMA_TYPE;
+    }
+
+    @Override
+    public List<String> getFileExtensions() {
+        return Collections.singletonList(".avsc");
+    }
+
+    @Override
+    public boolean supportsImports() {
+        return true;
+    }
+
+    @Override
+    public LocalSchema parse(final File file, final String definition, final ImportRegistry importRegistry) {
+        try {
+            return new AvroLocalSchema(this, importRegistry.newParser().parse(definition));
+        } catch (SchemaParseException e) {
+            throw new SchemaCompatibilityCheckException("Exception thrown while loading " + file, e);
+        }
+    }
+
+    @Override
+    public boolean testCompatibility(final SchemaRegistryClient client, final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        return client.testCompatibility(registrySubjectName, ((AvroLocalSchema) schema).getSchema());
+    }
+}
@@ -0,0 +1,56 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON Schema schemas (*.json). Full name of the schema type is taken from the <code>title</code> of the root schema, or from
+ * the file name without extension if the schema has no title.
+ */
+public class JsonSchemaFormat extends TextSchemaFormat {
+
+    public static final String SCHEMA_TYPE = "JSON";
+
+    @Override
+    public String getSchemaType() {
+        return SCHEMA_TYPE;
+    }
+
+    @Override
+    public List<String> getFileExtensions() {
+        return Collections.singletonList(".json");
+    }
+
+    @Override
+    public LocalSchema parse(final File file, final String definition, final ImportRegistry importRegistry) {
+        final JsonElement schema;
+        try {
+            schema = JsonParser.parseString(definition);
+        } catch (JsonParseException e) {
+            throw new SchemaCompatibilityCheckException("Exception thrown while loading " + file, e);
+        }
+        if (!schema.isJsonObject()) {
+            throw new SchemaCompatibilityCheckException(String.format("Exception thrown while loading %s: root schema is not an object", file), null);
+        }
+
+        final JsonObject rootSchema = schema.getAsJsonObject();
+        final JsonElement title = rootSchema.get("title");
+        final String typeFullName = title != null && title.isJsonPrimitive() ? title.getAsString() : baseName(file);
+        final String normalizedDefinition = rootSchema.toString();
+        return new TextLocalSchema(this, typeFullName, normalizedDefinition, normalizedDefinition);
+    }
+
+    private static String baseName(final File file) {
+        final String name = file.getName();
+        final int extensionStart = name.lastIndexOf('.');
+        return extensionStart > 0 ? name.substring(0, extensionStart) : name;
+    }
+}
@@ -0,0 +1,28 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+/**
+ * Local schema parsed by its {@link SchemaFormat}.
+ */
+public interface LocalSchema {
+
+    /**
+     * Returns format the schema was parsed by.
+     */
+    SchemaFormat getFormat();
+
+    /**
+     * Returns full name of the schema type, which is matched against type names extracted from registry subject names.
+     */
+    String getTypeFullName();
+
+    /**
+     * Returns definition of the schema as sent to schema registry.
+     */
+    String getDefinition();
+
+    /**
+     * Returns fingerprint of full schema definition (including defaults, docs and other attributes), equal for schemas
+     * differing only in formatting.
+     */
+    long getFingerprint();
+}
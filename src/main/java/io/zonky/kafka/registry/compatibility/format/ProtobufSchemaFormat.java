@@ -0,0 +1,127 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Protobuf schemas (*.proto). Full name of the schema type is the name of the first top-level message qualified by package
+ * of the file, as in schema registry.
+ * <p>
+ * Definitions are not parsed, only scanned for top-level <code>package</code> and <code>message</code> declarations - comments,
+ * string literals and everything nested in braces (nested messages, enums, options, services...) is skipped. Validation of the
+ * definitions is left to schema registry.
+ * <p>
+ * Schemas are sent to schema registry without references, so definitions importing other files are rejected. Only imports
+ * of the well-known types (<code>google/protobuf/*.proto</code>) are allowed, as schema registry resolves them itself.
+ */
+public class ProtobufSchemaFormat extends TextSchemaFormat {
+
+    public static final String SCHEMA_TYPE = "PROTOBUF";
+
+    private static final Pattern PACKAGE = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+    private static final Pattern MESSAGE = Pattern.compile("message\\s+(\\w+)\\s*\\{");
+    private static final Pattern IMPORT = Pattern.compile("import\\s+(?:(?:public|weak)\\s+)?[\"']([^\"']*)[\"']\\s*;");
+    private static final String WELL_KNOWN_TYPES_PREFIX = "google/protobuf/";
+
+    @Override
+    public String getSchemaType() {
+        return SCHEMA_TYPE;
+    }
+
+    @Override
+    public List<String> getFileExtensions() {
+        return Collections.singletonList(".proto");
+    }
+
+    @Override
+    public LocalSchema parse(final File file, final String definition, final ImportRegistry importRegistry) {
+        final String normalizedDefinition = normalize(file, definition);
+
+        final Matcher packageMatcher = PACKAGE.matcher(normalizedDefinition);
+        final Matcher messageMatcher = MESSAGE.matcher(normalizedDefinition);
+        final Matcher importMatcher = IMPORT.matcher(normalizedDefinition);
+        String packageName = null;
+        String messageName = null;
+        int depth = 0;
+        for (int i = 0; i < normalizedDefinition.length(); i++) {
+            final char c = normalizedDefinition.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = endOfString(normalizedDefinition, i) - 1;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (depth == 0 && (i == 0 || !Character.isJavaIdentifierPart(normalizedDefinition.charAt(i - 1)))) {
+                if (packageName == null && packageMatcher.region(i, normalizedDefinition.length()).lookingAt()) {
+                    packageName = packageMatcher.group(1);
+                } else if (messageName == null && messageMatcher.region(i, normalizedDefinition.length()).lookingAt()) {
+                    messageName = messageMatcher.group(1);
+                } else if (importMatcher.region(i, normalizedDefinition.length()).lookingAt()
+                        && !importMatcher.group(1).startsWith(WELL_KNOWN_TYPES_PREFIX)) {
+                    throw new SchemaCompatibilityCheckException(String.format(
+                            "Exception thrown while loading %s: import of %s is not supported, Protobuf schemas are checked without references",
+                            file, importMatcher.group(1)), null);
+                }
+            }
+        }
+        if (messageName == null) {
+            throw new SchemaCompatibilityCheckException(String.format("Exception thrown while loading %s: no top-level message found", file), null);
+        }
+        final String typeFullName = packageName == null ? messageName : packageName + "." + messageName;
+        return new TextLocalSchema(this, typeFullName, definition, normalizedDefinition);
+    }
+
+    /**
+     * Removes comments and collapses whitespace outside of string literals, verifies that braces are balanced.
+     */
+    private static String normalize(final File file, final String definition) {
+        final StringBuilder normalized = new StringBuilder(definition.length());
+        int depth = 0;
+        int i = 0;
+        while (i < definition.length()) {
+            final char c = definition.charAt(i);
+            if (c == '"' || c == '\'') {
+                final int end = endOfString(definition, i);
+                normalized.append(definition, i, end);
+                i = end;
+            } else if (definition.startsWith("//", i)) {
+                final int end = definition.indexOf('\n', i);
+                i = end < 0 ? definition.length() : end;
+            } else if (definition.startsWith("/*", i)) {
+                final int end = definition.indexOf("*/", i + 2);
+                i = end < 0 ? definition.length() : end + 2;
+            } else if (Character.isWhitespace(c)) {
+                if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+                i++;
+            } else {
+                depth += c == '{' ? 1 : c == '}' ? -1 : 0;
+                if (depth < 0) {
+                    break;
+                }
+                normalized.append(c);
+                i++;
+            }
+        }
+        if (depth != 0) {
+            throw new SchemaCompatibilityCheckException(String.format("Exception thrown while loading %s: unbalanced braces", file), null);
+        }
+        return normalized.toString().trim();
+    }
+
+    private static int endOfString(final String definition, final int start) {
+        final char quote = definition.charAt(start);
+        int i = start + 1;
+        while (i < definition.length() && definition.charAt(i) != quote) {
+            i += definition.charAt(i) == '\\' ? 2 : 1;
+        }
+        return Math.min(i + 1, definition.length());
+    }
+}
@@ -0,0 +1,62 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Service provider of a single schema format (Avro, Protobuf, JSON Schema...). Format of schema files is selected by
+ * {@link SchemaFormats}. Additional formats may be registered via {@link java.util.ServiceLoader} on the plugin classpath.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface SchemaFormat {
+
+    /**
+     * Returns schema type as used by schema registry (e.g. AVRO, PROTOBUF, JSON).
+     */
+    String getSchemaType();
+
+    /**
+     * Returns extensions of schema files in this format, including the leading dot.
+     */
+    List<String> getFileExtensions();
+
+    /**
+     * Whether schemas in this format may reference types defined in imports.
+     */
+    default boolean supportsImports() {
+        return false;
+    }
+
+    /**
+     * Parses schema definition and extracts full name of its type.
+     *
+     * @param file           file the definition was read from
+     * @param definition     content of the file
+     * @param importRegistry registry of imported types, relevant only to formats supporting imports
+     */
+    LocalSchema parse(File file, String definition, ImportRegistry importRegistry);
+
+    /**
+     * Verifies that compatibility of schemas in this format can be checked using given client, fails with a configuration
+     * error otherwise.
+     *
+     * @param client schema registry client
+     */
+    default void verifyClient(final SchemaRegistryClient client) {
+    }
+
+    /**
+     * Checks compatibility of the schema with given subject using compatibility endpoint of remote schema registry.
+     *
+     * @param client              schema registry client
+     * @param registrySubjectName remote schema registry subject name
+     * @param schema              local schema parsed by this format
+     */
+    boolean testCompatibility(SchemaRegistryClient client, String registrySubjectName, LocalSchema schema) throws IOException, RestClientException;
+}
@@ -0,0 +1,95 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of available schema formats, selecting format of every schema file. Either a single format is used for all the files,
+ * or format of every file is selected by its extension ({@link #AUTO}).
+ */
+public class SchemaFormats {
+
+    /**
+     * Format selection, which selects format of every file by its extension.
+     */
+    public static final String AUTO = "AUTO";
+
+    private final List<SchemaFormat> formats;
+    private final Map<String, SchemaFormat> formatsByExtension = new LinkedHashMap<>();
+    private final SchemaFormat fixedFormat;
+
+    /**
+     * @param formats   available formats, earlier formats take precedence for the same extension
+     * @param selection schema type of the format used for all the files, or {@link #AUTO}
+     */
+    public SchemaFormats(final List<SchemaFormat> formats, final String selection) {
+        this.formats = Collections.unmodifiableList(new ArrayList<>(formats));
+        for (final SchemaFormat format : formats) {
+            format.getFileExtensions().forEach(extension -> formatsByExtension.putIfAbsent(extension.toLowerCase(Locale.ROOT), format));
+        }
+        this.fixedFormat = AUTO.equalsIgnoreCase(selection) ? null : formats.stream()
+                .filter(format -> format.getSchemaType().equalsIgnoreCase(selection))
+                .findFirst()
+                .orElseThrow(() -> new SchemaCompatibilityCheckException(String.format("Unknown schema format %s, supported formats are %s and %s",
+                        selection, formats.stream().map(SchemaFormat::getSchemaType).collect(Collectors.toList()), AUTO), null));
+    }
+
+    /**
+     * Loads all the formats registered via {@link ServiceLoader} on the plugin classpath, including the built-in ones, and uses
+     * Avro format for all the files.
+     */
+    public static SchemaFormats load() {
+        return load(AvroSchemaFormat.SCHEMA_TYPE);
+    }
+
+    /**
+     * Loads all the formats registered via {@link ServiceLoader} on the plugin classpath, including the built-in ones.
+     *
+     * @param selection schema type of the format used for all the files, or {@link #AUTO}
+     */
+    public static SchemaFormats load(final String selection) {
+        final List<SchemaFormat> formats = new ArrayList<>();
+        ServiceLoader.load(SchemaFormat.class, SchemaFormat.class.getClassLoader()).forEach(formats::add);
+        return new SchemaFormats(formats, selection);
+    }
+
+    public List<SchemaFormat> getFormats() {
+        return formats;
+    }
+
+    /**
+     * Returns format of given file - the single configured format, or format selected by extension of the file, if any.
+     *
+     * @param file schema file
+     */
+    public Optional<SchemaFormat> find(final File file) {
+        if (fixedFormat != null) {
+            return Optional.of(fixedFormat);
+        }
+        final String name = file.getName().toLowerCase(Locale.ROOT);
+        return formatsByExtension.entrySet().stream()
+                .filter(entry -> name.endsWith(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+
+    /**
+     * Returns format of given file, fails if there is none.
+     *
+     * @param file schema file
+     */
+    public SchemaFormat get(final File file) {
+        return find(file).orElseThrow(() -> new SchemaCompatibilityCheckException(String.format(
+                "Unsupported schema file %s, supported extensions are %s", file, formatsByExtension.keySet()), null));
+    }
+}
@@ -0,0 +1,50 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import org.apache.avro.SchemaNormalization;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local schema in a format, which is not parsed into an object model - its definition is kept as text and compatibility is
+ * always checked by remote schema registry.
+ */
+public class TextLocalSchema implements LocalSchema {
+
+    private final SchemaFormat format;
+    private final String typeFullName;
+    private final String definition;
+    private final long fingerprint;
+
+    /**
+     * @param format               format of the schema
+     * @param typeFullName         full name of the schema type
+     * @param definition           definition of the schema as sent to schema registry
+     * @param normalizedDefinition definition without insignificant formatting, used to compute fingerprint
+     */
+    public TextLocalSchema(final SchemaFormat format, final String typeFullName, final String definition, final String normalizedDefinition) {
+        this.format = format;
+        this.typeFullName = typeFullName;
+        this.definition = definition;
+        this.fingerprint = SchemaNormalization.fingerprint64(normalizedDefinition.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public SchemaFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public String getTypeFullName() {
+        return typeFullName;
+    }
+
+    @Override
+    public String getDefinition() {
+        return definition;
+    }
+
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+}
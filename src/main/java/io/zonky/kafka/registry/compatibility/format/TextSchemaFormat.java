@@ -0,0 +1,30 @@
+package io.zonky.kafka.registry.compatibility.format;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.registry.SchemaTypeAwareClient;
+
+import java.io.IOException;
+
+/**
+ * Base of formats kept as {@link TextLocalSchema}. Their compatibility is checked by remote schema registry, which has to
+ * support the schema type, using a client able to send schema type along with the schema.
+ */
+public abstract class TextSchemaFormat implements SchemaFormat {
+
+    @Override
+    public void verifyClient(final SchemaRegistryClient client) {
+        if (!(client instanceof SchemaTypeAwareClient)) {
+            throw new SchemaCompatibilityCheckException(String.format(
+                    "%s schemas can be checked only against live schema registry with keepAliveClient enabled, %s doesn't support them",
+                    getSchemaType(), client.getClass().getSimpleName()), null);
+        }
+    }
+
+    @Override
+    public boolean testCompatibility(final SchemaRegistryClient client, final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+        verifyClient(client);
+        return ((SchemaTypeAwareClient) client).testCompatibility(registrySubjectName, getSchemaType(), schema.getDefinition());
+    }
+}
@@ -0,0 +1,166 @@
+package io.zonky.kafka.registry.compatibility.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of a single plugin execution - wall-clock time of its phases, counters and latency histograms of schema registry
+ * endpoints. All the methods are thread-safe.
+ */
+public class CheckMetrics {
+
+    public static final String FILES = "files";
+    public static final String UNCHANGED_FILES = "unchanged files";
+    public static final String SUBJECTS = "subjects";
+    public static final String CHECKS = "checks";
+    public static final String REGISTRY_CALLS = "registry calls";
+    public static final String RETRIES = "retries";
+    public static final String FAILED_CHECKS = "failed checks";
+    public static final String CACHE_HITS = "cache hits";
+    public static final String CACHE_MISSES = "cache misses";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseNanos = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * Runs given phase of execution and measures its wall-clock time.
+     *
+     * @param phase name of the phase
+     * @param body  the phase itself
+     */
+    public <T> T time(final String phase, final Supplier<T> body) {
+        final long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            phaseNanos.merge(phase, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    /**
+     * Runs given phase of execution and measures its wall-clock time.
+     *
+     * @param phase name of the phase
+     * @param body  the phase itself
+     */
+    public void time(final String phase, final Runnable body) {
+        time(phase, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public void increment(final String counter) {
+        add(counter, 1);
+    }
+
+    public void add(final String counter, final long delta) {
+        counters.computeIfAbsent(counter, c -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Records latency of single call of schema registry endpoint.
+     *
+     * @param endpoint endpoint identification
+     * @param nanos    latency in nanoseconds
+     */
+    public void recordLatency(final String endpoint, final long nanos) {
+        latencies.computeIfAbsent(endpoint, e -> new LatencyHistogram()).record(nanos);
+    }
+
+    public long getCounter(final String counter) {
+        final AtomicLong value = counters.get(counter);
+        return value == null ? 0 : value.get();
+    }
+
+    /**
+     * Returns human readable summary of all the metrics, one line per item.
+     */
+    public List<String> summary() {
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("Phases (total time %.1f ms):", LatencyHistogram.toMillis(System.nanoTime() - startNanos)));
+        new LinkedHashMap<>(phaseNanos).forEach((phase, nanos) -> lines.add(String.format(" - %s: %.1f ms", phase, LatencyHistogram.toMillis(nanos))));
+        lines.add("Counters:");
+        new TreeMap<>(counters).forEach((counter, value) -> lines.add(String.format(" - %s: %s", counter, value.get())));
+        if (!latencies.isEmpty()) {
+            lines.add("Schema registry calls:");
+        }
+        new TreeMap<>(latencies).forEach((endpoint, histogram) -> lines.add(String.format(
+                " - %s: count=%s, mean=%.1f ms, p50<=%.1f ms, p95<=%.1f ms, p99<=%.1f ms, max=%.1f ms",
+                endpoint, histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(50),
+                histogram.getPercentileMillis(95), histogram.getPercentileMillis(99), histogram.getMaxMillis())));
+        return lines;
+    }
+
+    /**
+     * Writes all the metrics as json into given file.
+     *
+     * @param file metrics report file
+     */
+    public void writeJson(final File file) {
+        final JsonObject report = new JsonObject();
+        report.addProperty("totalMillis", LatencyHistogram.toMillis(System.nanoTime() - startNanos));
+
+        final JsonObject phases = new JsonObject();
+        new LinkedHashMap<>(phaseNanos).forEach((phase, nanos) -> phases.addProperty(phase, LatencyHistogram.toMillis(nanos)));
+        report.add("phasesMillis", phases);
+
+        final JsonObject counterValues = new JsonObject();
+        new TreeMap<>(counters).forEach((counter, value) -> counterValues.addProperty(counter, value.get()));
+        report.add("counters", counterValues);
+
+        final JsonObject endpoints = new JsonObject();
+        new TreeMap<>(latencies).forEach((endpoint, histogram) -> endpoints.add(endpoint, toJson(histogram)));
+        report.add("endpoints", endpoints);
+
+        try {
+            Files.createDirectories(file.getAbsoluteFile().toPath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(report, writer);
+            }
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write metrics report " + file, e);
+        }
+    }
+
+    private static JsonObject toJson(final LatencyHistogram histogram) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("meanMillis", histogram.getMeanMillis());
+        json.addProperty("p50Millis", histogram.getPercentileMillis(50));
+        json.addProperty("p95Millis", histogram.getPercentileMillis(95));
+        json.addProperty("p99Millis", histogram.getPercentileMillis(99));
+        json.addProperty("maxMillis", histogram.getMaxMillis());
+
+        final JsonObject buckets = new JsonObject();
+        final long[] bucketCounts = histogram.getBucketCounts();
+        for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_MILLIS.length; i++) {
+            buckets.addProperty("le" + LatencyHistogram.BUCKET_BOUNDS_MILLIS[i], bucketCounts[i]);
+        }
+        buckets.addProperty("inf", bucketCounts[LatencyHistogram.BUCKET_BOUNDS_MILLIS.length]);
+        json.add("bucketsMillis", buckets);
+        return json;
+    }
+}
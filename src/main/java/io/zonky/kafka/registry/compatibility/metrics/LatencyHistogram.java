@@ -0,0 +1,85 @@
+package io.zonky.kafka.registry.compatibility.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies with fixed exponential buckets.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bounds (inclusive, in milliseconds) of histogram buckets. Last bucket holds all the latencies above the last bound.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos measured latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        bucketCounts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        final long currentCount = count.get();
+        return currentCount == 0 ? 0 : toMillis(totalNanos.get()) / currentCount;
+    }
+
+    public double getMaxMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    /**
+     * Returns upper bound of the bucket holding given percentile, or max latency if the percentile falls into the last bucket.
+     *
+     * @param percentile percentile in range 0-100
+     */
+    public double getPercentileMillis(final double percentile) {
+        final long threshold = (long) Math.ceil(count.get() * percentile / 100);
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            cumulativeCount += bucketCounts.get(i);
+            if (cumulativeCount >= threshold && cumulativeCount > 0) {
+                return Math.min(BUCKET_BOUNDS_MILLIS[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Returns number of latencies in every bucket, the last bucket holds latencies above the last bound.
+     */
+    public long[] getBucketCounts() {
+        final long[] counts = new long[bucketCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bucketCounts.get(i);
+        }
+        return counts;
+    }
+
+    private static int bucketOf(final long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (nanos <= TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i])) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    static double toMillis(final long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
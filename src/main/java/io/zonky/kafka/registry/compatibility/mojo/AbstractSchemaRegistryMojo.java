@@ -0,0 +1,112 @@
+package io.zonky.kafka.registry.compatibility.mojo;
+
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientConfig;
+import io.zonky.kafka.registry.compatibility.registry.KeepAliveSchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.registry.RegistryRestService;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the mojos communicating with remote schema registry.
+ */
+public abstract class AbstractSchemaRegistryMojo extends AbstractMojo {
+
+    /**
+     * URLs to remote schema registry/registries.
+     * <p/>
+     * Typically configured in pom.xml (<code>plugin -> configuration -> schemaRegistryUrls</code>).
+     * <p/>
+     * Can also be overridden via runtime environment property <code>-Dschema-registry-compatibility-plugin.schema-registry-urls=http://some.url</code>
+     *
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.schema-registry-urls", required = true)
+    private List<String> schemaRegistryUrls = new LinkedList<>();
+
+    /**
+     * Basic http auth user/password configuration. Uses "user:password" format.
+     */
+    @Parameter
+    private String userInfoConfig;
+
+    /**
+     * Maximal number of schemas cached by schema registry client.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.identity-map-capacity", defaultValue = "1000")
+    private int identityMapCapacity = 1000;
+
+    /**
+     * Uses schema registry client tuned for compatibility checks - request bodies of compatibility checks are serialized once
+     * per schema and schemas of any type supported by schema registry (not only Avro) may be checked. If disabled, the default
+     * Confluent client is used. Both the clients apply {@link #connectTimeoutMs} and {@link #readTimeoutMs} to every request
+     * and reuse persistent connections.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.keep-alive-client", defaultValue = "false")
+    private boolean keepAliveClient = false;
+
+    /**
+     * Timeout of opening connection to schema registry. Calls exceeding the timeout fail with an I/O error and they're retried.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.connect-timeout-ms", defaultValue = "10000")
+    private int connectTimeoutMs = 10000;
+
+    /**
+     * Timeout of reading response of schema registry. Calls exceeding the timeout fail with an I/O error and they're retried.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.read-timeout-ms", defaultValue = "30000")
+    private int readTimeoutMs = 30000;
+
+    /**
+     * Number of consecutive failed calls of a schema registry URL after which the URL is skipped for {@link #circuitBreakerOpenMs}.
+     * Every configured URL has its own circuit breaker, calls fail right away once the breakers of all the URLs are open. Zero
+     * disables the circuit breakers.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.circuit-breaker-failure-threshold", defaultValue = "10")
+    private int circuitBreakerFailureThreshold = 10;
+
+    /**
+     * Time the circuit breaker of a schema registry URL stays open before a trial call of the URL is let through.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.circuit-breaker-open-ms", defaultValue = "30000")
+    private long circuitBreakerOpenMs = 30000;
+
+    protected List<String> getSchemaRegistryUrls() {
+        return schemaRegistryUrls;
+    }
+
+    /**
+     * Returns key identifying configured schema registry and all the settings the client is built from, executions with equal
+     * keys may share the same client.
+     */
+    protected List<Object> getRegistryKey() {
+        return new ArrayList<>(Arrays.asList(new ArrayList<>(schemaRegistryUrls), userInfoConfig, identityMapCapacity, keepAliveClient,
+                connectTimeoutMs, readTimeoutMs, circuitBreakerFailureThreshold, circuitBreakerOpenMs));
+    }
+
+    /**
+     * Creates configured instance of schema registry client.
+     */
+    protected SchemaRegistryClient buildClient() {
+        Map<String, String> config = new HashMap<>();
+        if (userInfoConfig != null) {
+            // Note that BASIC_AUTH_CREDENTIALS_SOURCE is not configurable as the plugin only supports
+            // a single schema registry URL, so there is no additional utility of the URL source.
+            config.put(SchemaRegistryClientConfig.BASIC_AUTH_CREDENTIALS_SOURCE, "USER_INFO");
+            config.put(SchemaRegistryClientConfig.USER_INFO_CONFIG, userInfoConfig);
+        }
+        final RegistryRestService restService = new RegistryRestService(this.schemaRegistryUrls, connectTimeoutMs, readTimeoutMs,
+                circuitBreakerFailureThreshold, circuitBreakerOpenMs);
+        if (keepAliveClient) {
+            return new KeepAliveSchemaRegistryClient(restService, identityMapCapacity, config);
+        }
+        return new CachedSchemaRegistryClient(restService, identityMapCapacity, config);
+    }
+}
@@ -0,0 +1,52 @@
+package io.zonky.kafka.registry.compatibility.mojo;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.registry.RegistrySnapshot;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Dumps subjects, their versions and compatibility levels and all the schemas of remote schema registry into a snapshot file.
+ * The snapshot may then be used by <code>test-compatibility</code> goal (see its <code>registrySnapshotFile</code> parameter)
+ * instead of live remote schema registry.
+ */
+@Mojo(name = "snapshot-registry")
+public class SnapshotRegistryMojo extends AbstractSchemaRegistryMojo {
+
+    /**
+     * File the snapshot is written to. Snapshot is gzip compressed if the file name ends with ".gz".
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.registry-snapshot-file",
+            defaultValue = "${project.build.directory}/schema-registry-snapshot.json.gz")
+    private File registrySnapshotFile;
+
+    /**
+     * Regex pattern (in java regex syntax) selecting subjects to be included in the snapshot. All subjects are included by default.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.snapshot-subject-name-filter")
+    private String snapshotSubjectNameFilter;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        final Predicate<String> subjectFilter = snapshotSubjectNameFilter == null
+                ? subjectName -> true
+                : Pattern.compile(snapshotSubjectNameFilter).asPredicate();
+
+        final RegistrySnapshot snapshot;
+        try {
+            snapshot = RegistrySnapshot.capture(buildClient(), subjectFilter);
+        } catch (IOException | RestClientException e) {
+            throw new MojoExecutionException("Unable to create snapshot of remote schema registry", e);
+        }
+        snapshot.write(registrySnapshotFile);
+
+        getLog().info(String.format("Registry snapshot with %s subject(s) and %s schema(s) written to %s.",
+                snapshot.getSubjects().size(), snapshot.getSchemas().size(), registrySnapshotFile));
+    }
+}
@@ -1,14 +1,8 @@
 package io.zonky.kafka.registry.compatibility.mojo;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
-import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientConfig;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
-import org.apache.avro.Schema;
-import org.apache.avro.SchemaParseException;
-import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -17,42 +11,77 @@ import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.util.FileSetManager;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.Supplier;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import io.zonky.kafka.registry.compatibility.cache.CachingCompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.cache.CompatibilityResultCache;
+import io.zonky.kafka.registry.compatibility.change.ChangeDetection;
+import io.zonky.kafka.registry.compatibility.change.FileHashManifest;
+import io.zonky.kafka.registry.compatibility.change.GitChanges;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckExecutor;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckStrategy;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.check.LocalCompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.check.RegistryHostLimiter;
+import io.zonky.kafka.registry.compatibility.check.RemoteCompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.check.VersionHistoryChecker;
 import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckSummary;
 import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
 import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
-import io.zonky.kafka.registry.compatibility.util.LazySupplier;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormats;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import io.zonky.kafka.registry.compatibility.registry.RegistryEndpoint;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RegistrySession;
+import io.zonky.kafka.registry.compatibility.registry.RegistrySessions;
+import io.zonky.kafka.registry.compatibility.registry.RetryPolicy;
+import io.zonky.kafka.registry.compatibility.registry.SnapshotSchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.registry.SubjectIndex;
+import io.zonky.kafka.registry.compatibility.report.CheckResultWriter;
+import io.zonky.kafka.registry.compatibility.report.CompositeResultWriter;
+import io.zonky.kafka.registry.compatibility.report.ReportFormat;
+import io.zonky.kafka.registry.compatibility.schema.AffectedSchemaFiles;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+import io.zonky.kafka.registry.compatibility.schema.SchemaFileLoader;
 
 @Mojo(name = "test-compatibility")
-public class TestSchemaCompatibilityMojo extends AbstractMojo {
+public class TestSchemaCompatibilityMojo extends AbstractSchemaRegistryMojo {
 
     /**
-     * Filesets definitons that should match local schema files (*.avsc) whose schema definitions should be
-     * compatibility-checked against remote schema registry.
+     * Filesets definitons that should match local schema files whose schema definitions should be compatibility-checked
+     * against remote schema registry. Format of the files is given by {@link #schemaFormat}.
      */
     @SuppressWarnings("MismatchedReadAndWriteOfArray")
     @Parameter(required = true)
     private FileSet[] schemaFileSets = new FileSet[]{};
 
     /**
-     * A list of files that should be parsed first thus making them importable by other schemas (including each other)
+     * Format of all the schema files matched by {@link #schemaFileSets} - AVRO, PROTOBUF, JSON or schema type of a format
+     * registered as an extension. With AUTO, format of every file is selected by its extension - Avro (*.avsc), Protobuf
+     * (*.proto) or JSON Schema (*.json), files with other extensions fail the check.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.schema-format", defaultValue = "AVRO")
+    private String schemaFormat = AvroSchemaFormat.SCHEMA_TYPE;
+
+    /**
+     * A list of files that should be parsed first thus making them importable by other schemas (including each other).
+     * Imports may be listed in any order, they're parsed in the order of their mutual dependencies.
      */
     @Parameter
     private List<String> imports = new LinkedList<>();
@@ -77,77 +106,334 @@ public class TestSchemaCompatibilityMojo extends AbstractMojo {
     private MavenProject project;
 
     /**
-     * URLs to remote schema registry/registries.
-     * <p/>
-     * Typically configured in pom.xml (<code>plugin -> configuration -> schemaRegistryUrls</code>).
-     * <p/>
-     * Can also be overridden via runtime environment property <code>-Dschema-registry-compatibility-plugin.schema-registry-urls=http://some.url</code>
-     *
+     * Number of worker threads performing compatibility checks concurrently.
      */
-    @Parameter(property = "schema-registry-compatibility-plugin.schema-registry-urls", required = true)
-    private List<String> schemaRegistryUrls = new LinkedList<>();
+    @Parameter(property = "schema-registry-compatibility-plugin.threads", defaultValue = "4")
+    private int threads = 4;
 
     /**
-     * Basic http auth user/password configuration. Uses "user:password" format.
+     * Maximal number of compatibility check requests running concurrently against a single schema registry host.
      */
-    @Parameter
-    private String userInfoConfig;
+    @Parameter(property = "schema-registry-compatibility-plugin.max-concurrent-requests-per-host", defaultValue = "4")
+    private int maxConcurrentRequestsPerHost = 4;
+
+    /**
+     * Strategy of performing compatibility checks:
+     * <ul>
+     * <li>REMOTE - every (schema, subject) pair is checked by compatibility endpoint of remote schema registry</li>
+     * <li>LOCAL - relevant versions of every matched subject are fetched once and compatibility is evaluated locally according
+     * to the compatibility level configured for the subject</li>
+     * </ul>
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.compatibility-check-strategy", defaultValue = "REMOTE")
+    private CompatibilityCheckStrategy compatibilityCheckStrategy = CompatibilityCheckStrategy.REMOTE;
+
+    /**
+     * Number of the latest versions of every subject Avro schemas are additionally checked against, -1 for all the versions,
+     * zero to check only the versions selected by compatibility level of the subject. Direction of the checks (backward, forward
+     * or both) follows compatibility level of the subject. Every version is fetched once per build and compatibility with every
+     * distinct schema is evaluated once, no matter how many subjects share it.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.version-history-depth", defaultValue = "0")
+    private int versionHistoryDepth;
+
+    /**
+     * Enables incremental mode, in which results of compatibility checks are cached in {@link #resultCacheFile}. Compatibility
+     * of a (schema, subject) pair is checked against remote schema registry again only if local schema, latest version of the
+     * subject or compatibility level of the subject changed since the cached check.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.use-result-cache", defaultValue = "false")
+    private boolean useResultCache;
+
+    /**
+     * File holding cached results of compatibility checks (see {@link #useResultCache}). May be placed in a directory shared
+     * by several modules or builds.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.result-cache-file",
+            defaultValue = "${project.build.directory}/schema-registry-compatibility/result-cache.json")
+    private File resultCacheFile;
+
+    /**
+     * Number of days after which results not used by any build are evicted from {@link #resultCacheFile}.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.result-cache-max-age-days", defaultValue = "30")
+    private int resultCacheMaxAgeDays = 30;
+
+    /**
+     * Maximal number of results kept in {@link #resultCacheFile}, the least recently used results are evicted first.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.result-cache-max-entries", defaultValue = "100000")
+    private int resultCacheMaxEntries = 100000;
+
+    /**
+     * Way of detecting changed schema files. If enabled, only schema files changed since configured base and schema files
+     * transitively depending on changed imports are checked:
+     * <ul>
+     * <li>NONE - all the schema files are checked</li>
+     * <li>GIT - files changed since merge-base of HEAD and {@link #gitBaseRef}, including uncommitted and untracked ones</li>
+     * <li>MANIFEST - files changed since previous successful check, detected by content hashes saved in {@link #changeManifestFile}</li>
+     * </ul>
+     * Changes in remote schema registry are not detected, so full check should still be performed regularly.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.change-detection", defaultValue = "NONE")
+    private ChangeDetection changeDetection = ChangeDetection.NONE;
+
+    /**
+     * Git ref the schema files are compared to with GIT {@link #changeDetection}.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.git-base-ref", defaultValue = "origin/master")
+    private String gitBaseRef = "origin/master";
+
+    /**
+     * Manifest of content hashes of checked schema files used by MANIFEST {@link #changeDetection}. Manifest is updated only
+     * after successful check.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.change-manifest-file",
+            defaultValue = "${project.build.directory}/schema-registry-compatibility/change-manifest.json")
+    private File changeManifestFile;
+
+    /**
+     * Registry snapshot created by <code>snapshot-registry</code> goal. If configured, compatibility is checked against the
+     * snapshot instead of live remote schema registry.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.registry-snapshot-file")
+    private File registrySnapshotFile;
+
+    /**
+     * Shares schema registry client, index of registry subjects and cache of remote subjects by all the executions of current
+     * maven session (e.g. by all the modules of a reactor build, including parallel builds). Subjects are thus listed only
+     * once per build.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.share-registry-session", defaultValue = "true")
+    private boolean shareRegistrySession = true;
+
+    /**
+     * Reference to current maven session.
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
+    /**
+     * Maximal number of retries of a schema registry call failing with a transient error (I/O error, timeout, HTTP 5xx or 429).
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.max-retries", defaultValue = "3")
+    private int maxRetries = 3;
+
+    /**
+     * Upper bound of randomized delay before the first retry of a schema registry call, doubled with every next retry.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.retry-backoff-ms", defaultValue = "200")
+    private long retryBackoffMs = 200;
+
+    /**
+     * Maximal delay between two retries of a schema registry call.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.max-retry-backoff-ms", defaultValue = "10000")
+    private long maxRetryBackoffMs = 10000;
+
+    /**
+     * Aborts all the compatibility checks on the first check which fails with an error. If disabled, remaining checks continue
+     * and all the errors are reported together at the end.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.fail-fast", defaultValue = "true")
+    private boolean failFast = true;
+
+    /**
+     * Enables streaming mode for very large schema sets. Schema files are parsed and checked in chunks of
+     * {@link #streamingChunkSize} files, parsed schemas are released once checked and only compact results of incompatible
+     * or failed checks are kept until the end. Results of individual files are printed as soon as their chunk is checked.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.streaming", defaultValue = "false")
+    private boolean streaming;
+
+    /**
+     * Number of schema files parsed and checked at once in {@link #streaming} mode.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.streaming-chunk-size", defaultValue = "500")
+    private int streamingChunkSize = 500;
+
+    /**
+     * Formats of machine-readable reports of compatibility check results written into {@link #reportDirectory}:
+     * <ul>
+     * <li>JSON_LINES - one json object per check (schema-compatibility.jsonl)</li>
+     * <li>JUNIT - JUnit XML test suite with one test case per check (TEST-schema-compatibility.xml)</li>
+     * <li>SARIF - SARIF log with one result per incompatible or failed check (schema-compatibility.sarif)</li>
+     * </ul>
+     * Results are written as soon as the checks complete, including latency of every check and remote subject version it
+     * was checked against (if known).
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.report-formats")
+    private List<ReportFormat> reportFormats = new LinkedList<>();
+
+    /**
+     * Directory the reports are written to (see {@link #reportFormats}).
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.report-directory",
+            defaultValue = "${project.build.directory}/schema-registry-compatibility")
+    private File reportDirectory;
+
+    /**
+     * Writes execution metrics (time of execution phases, counters and latencies of schema registry calls) as json into
+     * {@link #metricsReportFile} and prints their summary. If disabled, the summary is printed at debug level only.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.write-metrics-report", defaultValue = "false")
+    private boolean writeMetricsReport;
+
+    /**
+     * File the execution metrics are written to (see {@link #writeMetricsReport}).
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.metrics-report-file",
+            defaultValue = "${project.build.directory}/schema-registry-compatibility/metrics.json")
+    private File metricsReportFile;
 
     /**
      * Finds all the files that should get checked, loads their local schemas and check them against remote schema registry.
      */
     @Override
     public void execute() throws MojoExecutionException {
-        final FileSetManager fileSetManager = new FileSetManager();
-        final Supplier<SchemaRegistryClient> clientSupplier = new LazySupplier<>(this::buildClient);
+        final CheckMetrics metrics = new CheckMetrics();
+        try {
+            execute(metrics);
+        } finally {
+            reportMetrics(metrics);
+        }
+    }
 
-        // Find schema files to be check, load their local schemas and check them against all matching subjects in remote schema registry
-        final List<SchemaFileCheckingContext> schemaFileCheckingContexts = Arrays.stream(schemaFileSets)
-                .map(this.getIncludedFiles(fileSetManager))
-                .flatMap(List::stream)
-                .map(this::toSchemaFileCheckingContext)
-                .map(this::addSchema)
-                .map(this.addMatchingRegistrySubjectNames(new LazySupplier<>(() -> fetchSchemaRegistrySubjects(clientSupplier))))
-                .map(this.addCompatibilityCheckResults(clientSupplier))
-                .collect(Collectors.toList());
+    private void execute(final CheckMetrics metrics) throws MojoExecutionException {
+        final RegistrySession registrySession = openRegistrySession();
+        final RegistryInvoker registryInvoker = newRegistryInvoker(registrySession, metrics);
 
-        if (schemaFileCheckingContexts.isEmpty()) {
-            getLog().warn("No schema files found to be checked for compatibility.");
+        // Find schema files to be check, load their local schemas and check them against all matching subjects in remote schema registry
+        final List<File> schemaFiles = metrics.time("scan files", this::scanSchemaFiles);
+        final ImportRegistry importRegistry = metrics.time("parse imports", this::loadImports);
+        final SchemaFormats schemaFormats = loadSchemaFormats();
+        final FileHashManifest changeManifest = changeDetection == ChangeDetection.MANIFEST ? FileHashManifest.load(changeManifestFile) : null;
+        final List<File> checkedFiles = changeDetection == ChangeDetection.NONE
+                ? schemaFiles
+                : metrics.time("detect changes", () -> selectAffectedFiles(schemaFiles, importRegistry, schemaFormats, changeManifest));
+        if (changeDetection != ChangeDetection.NONE) {
+            metrics.add(CheckMetrics.UNCHANGED_FILES, schemaFiles.size() - checkedFiles.size());
+        }
+        if (checkedFiles.isEmpty()) {
+            if (schemaFiles.isEmpty()) {
+                getLog().warn("No schema files found to be checked for compatibility.");
+            } else {
+                getLog().info("No changed schema files found to be checked for compatibility.");
+                saveChangeManifest(changeManifest);
+            }
             return;
         }
 
+        verifySchemaFormats(checkedFiles, schemaFormats, registrySession);
+
+        final SubjectIndex subjectIndex = metrics.time("list subjects",
+                () -> registrySession.getSubjectIndex(schemaRegistrySubjectNamePattern, () -> buildSubjectIndex(registryInvoker)));
+        metrics.add(CheckMetrics.SUBJECTS, subjectIndex.getSubjectCount());
+
+        // Files are processed in chunks in streaming mode, so only a single chunk of parsed schemas is held in memory at once
+        final SchemaFileLoader schemaFileLoader = new SchemaFileLoader(importRegistry, schemaFormats);
+        final CompatibilityCheckSummary summary = new CompatibilityCheckSummary();
+        final List<String> fileCheckLines = new ArrayList<>();
+        final int chunkSize = streaming ? Math.max(1, streamingChunkSize) : checkedFiles.size();
+        final CompatibilityResultCache resultCache = useResultCache ? CompatibilityResultCache.load(resultCacheFile, getResultCacheScope(),
+                TimeUnit.DAYS.toMillis(resultCacheMaxAgeDays), resultCacheMaxEntries) : null;
+        try (CheckResultWriter resultWriter = newResultWriter();
+             CompatibilityChecker checker = newCompatibilityChecker(registrySession, registryInvoker, resultCache);
+             CompatibilityCheckExecutor checkExecutor = newCheckExecutor(registrySession, checker, failFast, resultWriter::write)) {
+            for (int from = 0; from < checkedFiles.size(); from += chunkSize) {
+                final List<File> chunk = checkedFiles.subList(from, Math.min(from + chunkSize, checkedFiles.size()));
+                final List<SchemaFileCheckingContext> schemaFileCheckingContexts = metrics.time("parse schemas", () -> chunk.stream()
+                        .map(this.loadSchema(schemaFileLoader))
+                        .collect(Collectors.toList()));
+                metrics.add(CheckMetrics.FILES, schemaFileCheckingContexts.size());
+                schemaFileCheckingContexts.forEach(this.addMatchingRegistrySubjectNames(subjectIndex));
+                metrics.add(CheckMetrics.CHECKS, schemaFileCheckingContexts.stream().mapToLong(ctx -> ctx.getMatchingRegistrySubjectNames().size()).sum());
+
+                metrics.time("check compatibility", () -> checkExecutor.check(schemaFileCheckingContexts));
+
+                schemaFileCheckingContexts.forEach(ctx -> {
+                    summary.add(ctx);
+                    if (streaming) {
+                        getLog().info(describeFileCheck(ctx));
+                    } else {
+                        fileCheckLines.add(describeFileCheck(ctx));
+                    }
+                });
+                if (streaming) {
+                    getLog().info(String.format("Checked %s of %s schema file(s).", summary.getCheckedFileCount(), checkedFiles.size()));
+                }
+            }
+        }
+        if (resultCache != null) {
+            metrics.time("save result cache", resultCache::save);
+            metrics.add(CheckMetrics.CACHE_HITS, resultCache.getHits());
+            metrics.add(CheckMetrics.CACHE_MISSES, resultCache.getMisses());
+            getLog().info(String.format("Compatibility result cache %s: %s hit(s), %s miss(es).", resultCache.getFile(), resultCache.getHits(), resultCache.getMisses()));
+        }
+
         // Print result of compatibility checks results
-        final List<CompatibilityCheckResult> incompatibilities = schemaFileCheckingContexts.stream()
-                .map(s -> s.getCompatibilityCheckResults(false))
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        metrics.add(CheckMetrics.FAILED_CHECKS, summary.getFailures().size());
+        final List<String> problems = describeProblems(summary);
+        if (!problems.isEmpty()) {
+            throw new MojoExecutionException(String.join("\n", problems));
+        }
+        saveChangeManifest(changeManifest);
+
+        // print checking statistics for each file
+        if (streaming) {
+            getLog().info(String.format(" Schema checks complete. %s files were checked.", summary.getCheckedFileCount()));
+        } else {
+            getLog().info(" Schema checks complete. Following files were checked:");
+            fileCheckLines.forEach(line -> getLog().info(line));
+        }
+        warnFilesWithNoChecks(summary);
+    }
 
+    /**
+     * Describes incompatible and failed checks, returns an empty list if there are none.
+     *
+     * @param summary summary of performed checks
+     */
+    protected static List<String> describeProblems(final CompatibilityCheckSummary summary) {
+        final List<CompatibilityCheckResult> incompatibilities = summary.getIncompatibilities();
+        final List<CompatibilityCheckResult> failures = summary.getFailures();
+        final List<String> problems = new LinkedList<>();
         if (!incompatibilities.isEmpty()) {
-            throw new MojoExecutionException(
+            problems.add(
                     String.format("%s local schema(s) found to be incompatible with current version in remote schema registry: \n" +
                                     incompatibilities.stream()
-                                            .map(cr -> String.format("schema type '%s' is not compatible with schema registry subject '%s'", cr.getSchema().getFullName(), cr.getRegistrySubjectName()))
+                                            .map(cr -> String.format("schema type '%s' is not compatible with schema registry subject '%s'%s", cr.getSchemaTypeFullName(), cr.getRegistrySubjectName(),
+                                                    cr.getRemoteVersion() != null ? " (version " + cr.getRemoteVersion() + ")" : ""))
                                             .collect(Collectors.joining("\n"))
                             , incompatibilities.size()
                     )
             );
         }
+        if (!failures.isEmpty()) {
+            problems.add(
+                    String.format("%s compatibility check(s) failed with an error: \n" +
+                                    failures.stream()
+                                            .map(cr -> String.format("schema type '%s' against schema registry subject '%s': %s", cr.getSchemaTypeFullName(), cr.getRegistrySubjectName(), cr.getFailure()))
+                                            .collect(Collectors.joining("\n"))
+                            , failures.size()
+                    )
+            );
+        }
+        return problems;
+    }
 
-        // print checking statistics for each file
-        getLog().info(" Schema checks complete. Following files were checked:");
-        schemaFileCheckingContexts.forEach(ctx -> {
-            final List<CompatibilityCheckResult> incompatibleResults = ctx.getCompatibilityCheckResults().stream().filter(res -> !res.isCompatible()).collect(Collectors.toList());
-            final long compatibleCount = ctx.getCompatibilityCheckResults().size() - incompatibleResults.size();
-            getLog().info(String.format(" - '%s' (compatible_subjects=%s, incompatible_subjects=%s)", ctx.getFile().getName(), compatibleCount, incompatibleResults.size()));
-        });
-
-        // in case some of the files with local schema were not checked at all, WARN it
-        final List<SchemaFileCheckingContext> filesWithNoChecks = schemaFileCheckingContexts.stream().filter(ctx -> ctx.getCompatibilityCheckResults().isEmpty()).collect(Collectors.toList());
+    /**
+     * Warns about local schema files which were not checked against any subject.
+     *
+     * @param summary summary of performed checks
+     */
+    protected void warnFilesWithNoChecks(final CompatibilityCheckSummary summary) {
+        final List<File> filesWithNoChecks = summary.getFilesWithNoChecks();
         if (!filesWithNoChecks.isEmpty()) {
             getLog().warn(
                     String.format("%s local schema(s) were NOT CHECKED against any subject in remote schema registry: \n" +
                                     filesWithNoChecks.stream()
-                                            .map(cr -> " - " + cr.getFile().getName())
+                                            .map(file -> " - " + file.getName())
                                             .collect(Collectors.joining("\n")),
                             filesWithNoChecks.size()
                     )
@@ -156,13 +442,73 @@ public class TestSchemaCompatibilityMojo extends AbstractMojo {
     }
 
     /**
-     * Constructs a SchemaFileCheckingContext object from specified schemaFile.
+     * Describes results of checks of single file.
      *
-     * @param schemaFile single .avsc avro schema file
+     * @param context checked context
+     */
+    protected static String describeFileCheck(final SchemaFileCheckingContext context) {
+        final int incompatibleCount = context.getCompatibilityCheckResults(false).size();
+        final int compatibleCount = context.getCompatibilityCheckResults(true).size();
+        return String.format(" - '%s' (compatible_subjects=%s, incompatible_subjects=%s)", context.getFile().getName(), compatibleCount, incompatibleCount);
+    }
+
+    /**
+     * Creates writer of all the configured reports.
+     */
+    private CheckResultWriter newResultWriter() {
+        final File baseDirectory = project != null && project.getBasedir() != null ? project.getBasedir() : new File(".");
+        final List<CheckResultWriter> writers = new ArrayList<>(reportFormats.size());
+        for (final ReportFormat reportFormat : new LinkedHashSet<>(reportFormats)) {
+            writers.add(reportFormat.newWriter(reportDirectory, baseDirectory));
+            getLog().info(String.format("Writing %s report to %s.", reportFormat, new File(reportDirectory, reportFormat.getFileName())));
+        }
+        return new CompositeResultWriter(writers);
+    }
+
+    /**
+     * Finds all the schema files matched by configured filesets.
      */
-    private SchemaFileCheckingContext toSchemaFileCheckingContext(final File schemaFile) {
-        final String schemaTypeFullName = getSchemaTypeFullName(schemaFile);
-        return new SchemaFileCheckingContext(schemaFile, schemaTypeFullName);
+    protected List<File> scanSchemaFiles() {
+        final FileSetManager fileSetManager = new FileSetManager();
+        return Arrays.stream(schemaFileSets)
+                .map(this.getIncludedFiles(fileSetManager))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads available schema formats, selecting format of schema files according to {@link #schemaFormat}.
+     */
+    protected SchemaFormats loadSchemaFormats() throws MojoExecutionException {
+        try {
+            return SchemaFormats.load(schemaFormat);
+        } catch (SchemaCompatibilityCheckException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Verifies that schemas of all the given files can be checked by configured schema registry client, so that a client not
+     * supporting some schema format fails the build before any check is performed.
+     *
+     * @param schemaFiles     schema files to be checked
+     * @param schemaFormats   available schema formats
+     * @param registrySession session of schema registry providing the client
+     */
+    protected void verifySchemaFormats(final List<File> schemaFiles, final SchemaFormats schemaFormats, final RegistrySession registrySession)
+            throws MojoExecutionException {
+        final Set<SchemaFormat> usedFormats = schemaFiles.stream()
+                .map(schemaFormats::find)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        try {
+            for (final SchemaFormat usedFormat : usedFormats) {
+                usedFormat.verifyClient(registrySession.getClientSupplier().get());
+            }
+        } catch (SchemaCompatibilityCheckException e) {
+            throw new MojoExecutionException("Invalid configuration: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -175,174 +521,270 @@ public class TestSchemaCompatibilityMojo extends AbstractMojo {
     }
 
     /**
-     * Parses schema of the checked file and adds it to the context.
+     * Selects schema files which changed since configured base or which transitively depend on a changed import.
      *
-     * @param schemaFileCheckingContext context representing a single checked local schema file
-     */
-    private SchemaFileCheckingContext addSchema(SchemaFileCheckingContext schemaFileCheckingContext) {
-        Schema.Parser parser = newParser();
-        getLog().debug(
-                String.format(
-                        "Loading schema for subject(%s) from %s.",
-                        schemaFileCheckingContext.getSchemaTypeFullName(),
-                        schemaFileCheckingContext.getFile()
-                )
-        );
-
-        try (FileInputStream inputStream = new FileInputStream(schemaFileCheckingContext.getFile())) {
-            final Optional<Schema> alreadyDefinedSchema = parser.getTypes().entrySet().stream()
-                    .filter(type -> schemaFileCheckingContext.getSchemaTypeFullName().equals(type.getValue().getFullName()))
-                    .findFirst()
-                    .map(Map.Entry::getValue);
-            final Schema schema = alreadyDefinedSchema.isPresent()
-                    ? alreadyDefinedSchema.get()
-                    : parser.parse(inputStream);
-            schemaFileCheckingContext.setSchema(schema);
-            return schemaFileCheckingContext;
-        } catch (IOException | SchemaParseException e) {
-            getLog().error("Exception thrown while loading " + schemaFileCheckingContext.getFile(), e);
-            throw new SchemaCompatibilityCheckException(e);
+     * @param schemaFiles    all the schema files matched by filesets
+     * @param importRegistry registry of parsed imports
+     * @param schemaFormats  available schema formats
+     * @param changeManifest manifest of content hashes, or null if changes are detected by git
+     */
+    private List<File> selectAffectedFiles(final List<File> schemaFiles, final ImportRegistry importRegistry, final SchemaFormats schemaFormats,
+                                           final FileHashManifest changeManifest) {
+        final Set<File> changedFiles;
+        if (changeManifest != null) {
+            final Set<File> candidateFiles = new LinkedHashSet<>(schemaFiles);
+            candidateFiles.addAll(importRegistry.getImportFiles());
+            changedFiles = changeManifest.detectChanges(candidateFiles);
+        } else {
+            changedFiles = GitChanges.detect(project.getBasedir(), gitBaseRef);
         }
+        final List<File> affectedFiles = AffectedSchemaFiles.select(schemaFiles, changedFiles, importRegistry, schemaFormats);
+        getLog().info(String.format("Change detection %s: %s of %s schema file(s) changed or depend on a changed import.",
+                changeDetection, affectedFiles.size(), schemaFiles.size()));
+        return affectedFiles;
     }
 
     /**
-     * Adds subject names from remote schema registry which match currently checked file and ads them to context.
+     * Writes manifest of content hashes of checked files, if changes are detected by the manifest.
      *
-     * @param schemaRegistrySubjectsSupplier function that provides list of remote schema registry subjects
+     * @param changeManifest manifest of content hashes, or null if not used
      */
-    private Function<SchemaFileCheckingContext, SchemaFileCheckingContext> addMatchingRegistrySubjectNames(final Supplier<Collection<String>> schemaRegistrySubjectsSupplier) {
-        return (context) -> {
-            final Pattern subjectPartsExtractionPattern = Pattern.compile(schemaRegistrySubjectNamePattern);
-
-            final Map<String, List<String>> subjectNamesByFullSchemaTypeNames = schemaRegistrySubjectsSupplier.get().stream()
-                    .collect(Collectors.groupingBy(subj -> extractFullTypeNameFromSubject(subj, subjectPartsExtractionPattern)));
-
-            context.addMatchingRegistrySubjectNames(subjectNamesByFullSchemaTypeNames.getOrDefault(context.getSchemaTypeFullName(), Collections.emptyList()));
+    private void saveChangeManifest(final FileHashManifest changeManifest) {
+        if (changeManifest != null) {
+            changeManifest.save();
+            getLog().debug(String.format("Change manifest written to %s.", changeManifest.getFile()));
+        }
+    }
 
-            return context;
+    /**
+     * Loads schema of the checked file and constructs a SchemaFileCheckingContext object holding it.
+     *
+     * @param schemaFileLoader loader of local schema files
+     */
+    protected Function<File, SchemaFileCheckingContext> loadSchema(final SchemaFileLoader schemaFileLoader) {
+        return schemaFile -> {
+            getLog().debug(String.format("Loading schema from %s.", schemaFile));
+            try {
+                return schemaFileLoader.load(schemaFile);
+            } catch (SchemaCompatibilityCheckException e) {
+                getLog().error("Exception thrown while loading " + schemaFile, e.getCause());
+                throw e;
+            }
         };
     }
 
     /**
-     * Performs compatibility check for current file and all its matching remote schema registry subjects. Adds check results to the context.
+     * Adds subject names from remote schema registry which match currently checked file and ads them to context.
      *
-     * @param clientSupplier supplier that provides configured SchemaRegistryClient
+     * @param subjectIndex index of remote schema registry subjects
      */
-    private Function<SchemaFileCheckingContext, SchemaFileCheckingContext> addCompatibilityCheckResults(final Supplier<SchemaRegistryClient> clientSupplier) {
-        return (schemaFileCheckingContext -> {
-            final String schemaTypeFullName = schemaFileCheckingContext.getSchemaTypeFullName();
-            final Schema schema = schemaFileCheckingContext.getSchema();
-            final String schemaFilePath = schemaFileCheckingContext.getFile().getPath();
+    protected Consumer<SchemaFileCheckingContext> addMatchingRegistrySubjectNames(final SubjectIndex subjectIndex) {
+        return context -> context.addMatchingRegistrySubjectNames(subjectIndex.getSubjectNames(context.getSchemaTypeFullName()));
+    }
 
-            for (final String registrySubjectName : schemaFileCheckingContext.getMatchingRegistrySubjectNames()) {
-                if (getLog().isDebugEnabled()) {
-                    getLog().debug(String.format("Calling register('%s', '%s')", schemaTypeFullName, schema.toString(true)));
-                }
-                try {
-                    final boolean compatible = clientSupplier.get().testCompatibility(registrySubjectName, schema);
-                    schemaFileCheckingContext.addCompatiblityCheckResult(new CompatibilityCheckResult(registrySubjectName, schema, compatible));
-                    if (!compatible) {
-                        if (getLog().isDebugEnabled()) {
-                            getLog().error(String.format("Incompatibility found between schema file %s and registry subject %s", schemaTypeFullName, schemaFilePath));
-                        }
-                    }
-                } catch (IOException | RestClientException e) {
-                    if (getLog().isDebugEnabled()) {
-                        getLog().error(String.format("Exception found between schema file %s and registry subject %s", schemaTypeFullName, schemaFilePath));
-                    }
-                    throw new SchemaCompatibilityCheckException("Compatibility check failed", e);
-                }
-            }
-            return schemaFileCheckingContext;
-        });
+    /**
+     * Creates checker performing single compatibility check according to configured compatibility check strategy.
+     *
+     * @param registrySession session of schema registry
+     * @param registryInvoker invoker performing schema registry calls
+     * @param resultCache     cache of compatibility check results, or null if results should not be cached
+     */
+    protected CompatibilityChecker newCompatibilityChecker(final RegistrySession registrySession, final RegistryInvoker registryInvoker,
+                                                         final CompatibilityResultCache resultCache) {
+        final CompatibilityChecker strategyChecker = compatibilityCheckStrategy == CompatibilityCheckStrategy.LOCAL
+                ? new LocalCompatibilityChecker(registrySession.getRemoteSchemaCache(), registryInvoker)
+                : new RemoteCompatibilityChecker(registryInvoker);
+        final CompatibilityChecker checker = resultCache == null ? strategyChecker : new CachingCompatibilityChecker(strategyChecker, registryInvoker, resultCache);
+        // history is checked outside of the result cache, as cached results don't depend on history depth
+        return versionHistoryDepth == 0 ? checker : new VersionHistoryChecker(checker, registrySession.getRemoteSchemaCache(), registryInvoker,
+                versionHistoryDepth < 0 ? VersionHistoryChecker.ALL_VERSIONS : versionHistoryDepth, registrySession.getHostLimiter(),
+                getRegistryHost(), maxConcurrentRequestsPerHost);
     }
 
     /**
-     * Takes schema registry subject's name and extracts full name of schema type from it.
+     * Creates executor performing compatibility checks of all (file, subject) pairs concurrently.
      *
-     * @param subjectName                   remote schema registry subject name
-     * @param subjectPartsExtractionPattern regex that should contain "schematypefullname" named group
+     * @param registrySession session of schema registry, provides limiter of concurrent requests
+     * @param checker         strategy performing single compatibility check
+     * @param failFast        whether the first failed check should abort all the others
+     * @param resultListener  listener notified about every result as soon as its check completes
      */
-    private String extractFullTypeNameFromSubject(final String subjectName, final Pattern subjectPartsExtractionPattern) {
-        final Matcher matcher = subjectPartsExtractionPattern.matcher(subjectName);
-        if (matcher.find()) {
-            return matcher.group("schematypefullname");
-        } else {
-            getLog().warn(String.format("Unable to extract full type name from subject [%s], skipping verification of this subject.", subjectName));
-            return "UNRESOLVED_TOPIC_NAME";
+    protected CompatibilityCheckExecutor newCheckExecutor(final RegistrySession registrySession, final CompatibilityChecker checker,
+                                                          final boolean failFast, final Consumer<CompatibilityCheckResult> resultListener) {
+        return new CompatibilityCheckExecutor(threads, registrySession.getHostLimiter(), getRegistryHost(), checker, failFast, resultListener, getLog());
+    }
+
+    /**
+     * Returns host of the schema registry requests are limited for.
+     */
+    private String getRegistryHost() {
+        return getSchemaRegistryUrls().isEmpty() ? "" : RegistryHostLimiter.hostOf(getSchemaRegistryUrls().get(0));
+    }
+
+    /**
+     * Opens session of configured schema registry. The session is shared by all the executions of current maven session,
+     * unless sharing is disabled.
+     */
+    private RegistrySession openRegistrySession() {
+        if (!shareRegistrySession || session == null) {
+            return newRegistrySession();
         }
+        // cloned sessions of parallel builds share the same request
+        return RegistrySessions.get(session.getRequest(), getRegistryKey(), this::newRegistrySession);
+    }
+
+    protected RegistrySession newRegistrySession() {
+        return new RegistrySession(this::buildClient, maxConcurrentRequestsPerHost);
     }
 
     /**
-     * Reads provided avro schema file (json), parses it and builds full name (namespace+name) of the type defined in file.
+     * Creates invoker performing schema registry calls of given session with configured retries.
      *
-     * @param filePath file with avro (json) schema
+     * @param registrySession session of schema registry
+     * @param metrics         metrics the calls are recorded to
      */
-    private String getSchemaTypeFullName(final File filePath) {
-        try {
-            final JsonObject schemaDescJSON = JsonParser.parseReader(new FileReader(filePath)).getAsJsonObject();
-            final String namespace = schemaDescJSON.getAsJsonPrimitive("namespace").getAsString();
-            final String name = schemaDescJSON.getAsJsonPrimitive("name").getAsString();
-            return namespace + "." + name;
-        } catch (FileNotFoundException e) {
-            throw new SchemaCompatibilityCheckException(e);
-        }
+    protected RegistryInvoker newRegistryInvoker(final RegistrySession registrySession, final CheckMetrics metrics) {
+        return new RegistryInvoker(registrySession.getClientSupplier(), metrics,
+                new RetryPolicy(maxRetries, retryBackoffMs, maxRetryBackoffMs));
     }
 
     /**
-     * Performs remote API call against schema registry. Fetches all subject names, which are currently defined in schema registry.
+     * Performs remote API call against schema registry. Fetches all subject names, which are currently defined in schema registry
+     * and indexes them by the full schema type name extracted via schemaRegistrySubjectNamePattern.
      *
-     * @param clientSupplier function that provides schema registry client
+     * @param registryInvoker invoker performing schema registry calls
      */
-    private Collection<String> fetchSchemaRegistrySubjects(final Supplier<SchemaRegistryClient> clientSupplier) {
+    protected SubjectIndex buildSubjectIndex(final RegistryInvoker registryInvoker) {
+        final Collection<String> subjectNames;
         try {
-            return clientSupplier.get().getAllSubjects();
+            subjectNames = registryInvoker.invoke(RegistryEndpoint.SUBJECTS, SchemaRegistryClient::getAllSubjects);
         } catch (IOException | RestClientException e) {
             throw new SchemaCompatibilityCheckException(e);
         }
+
+        final SubjectIndex subjectIndex = SubjectIndex.build(subjectNames, Pattern.compile(schemaRegistrySubjectNamePattern));
+        final List<String> unmatchedSubjectNames = subjectIndex.getUnmatchedSubjectNames();
+        if (!unmatchedSubjectNames.isEmpty()) {
+            getLog().warn(
+                    String.format("Unable to extract full type name from %s subject(s), skipping verification of these subjects: \n" +
+                                    unmatchedSubjectNames.stream()
+                                            .map(subjectName -> " - " + subjectName)
+                                            .collect(Collectors.joining("\n")),
+                            unmatchedSubjectNames.size()
+                    )
+            );
+        }
+        return subjectIndex;
     }
 
     /**
-     * Builds a new schema parser. Respects dependencies, if they're provided in plugin configuration.
+     * Prints summary of execution metrics and writes them into metrics report file, if enabled.
+     *
+     * @param metrics metrics of current execution
      */
-    private Schema.Parser newParser() {
-        if (imports.isEmpty()) {
-            return new Schema.Parser();
+    /**
+     * Logs summary of the metrics (at debug level unless metrics report is enabled) and writes the metrics report. Reporting
+     * runs once the execution ends, even if it failed, so failures of the report are only logged and never replace the
+     * failure of the execution.
+     */
+    private void reportMetrics(final CheckMetrics metrics) {
+        if (writeMetricsReport) {
+            getLog().info("Schema compatibility check metrics:");
+            metrics.summary().forEach(line -> getLog().info(line));
+            try {
+                metrics.writeJson(metricsReportFile);
+                getLog().info(String.format("Metrics report written to %s.", metricsReportFile));
+            } catch (RuntimeException e) {
+                getLog().warn(String.format("Unable to write metrics report %s", metricsReportFile), e);
+            }
+        } else if (getLog().isDebugEnabled()) {
+            getLog().debug("Schema compatibility check metrics:");
+            metrics.summary().forEach(line -> getLog().debug(line));
         }
-        return parserWithDependencies(imports);
     }
 
     /**
-     * Creates a parser, which already has pre-parsed dependencies ("imports")
-     *
-     * @param dependencies list of schema files which should be treated as dependencies ("imports")
-     */
-    private Schema.Parser parserWithDependencies(List<String> dependencies) {
-        final Schema.Parser parserWithDependencies = new Schema.Parser();
-
-        for (String dependency : dependencies) {
-            try (FileInputStream inputStream = new FileInputStream(dependency)) {
-                parserWithDependencies.parse(inputStream);
-                getLog().debug(String.format("Parsing imports:%s", dependency));
-            } catch (IOException | SchemaParseException e) {
-                throw new SchemaCompatibilityCheckException(
-                        String.format("Unable to parse dependency %s", dependency), e);
-            }
+     * Reads and parses all the imports configured in plugin configuration. Each import is parsed exactly once.
+     */
+    protected ImportRegistry loadImports() {
+        final ImportRegistry importRegistry = ImportRegistry.load(getImportFiles());
+        if (getLog().isDebugEnabled()) {
+            importRegistry.getImportFiles().forEach(importFile -> getLog().debug(String.format("Parsed import: %s", importFile)));
         }
-        return parserWithDependencies;
+        return importRegistry;
     }
 
     /**
-     * Creates configured instance of schema registry client.
+     * Returns directories of all the configured filesets.
      */
+    protected List<File> getSchemaFileSetDirectories() {
+        return Arrays.stream(schemaFileSets).map(fs -> new File(fs.getDirectory())).collect(Collectors.toList());
+    }
+
+    protected List<File> getImportFiles() {
+        return imports.stream().map(File::new).collect(Collectors.toList());
+    }
+
+    protected String getSchemaRegistrySubjectNamePattern() {
+        return schemaRegistrySubjectNamePattern;
+    }
+
+    protected CompatibilityCheckStrategy getCompatibilityCheckStrategy() {
+        return compatibilityCheckStrategy;
+    }
+
+    /**
+     * Returns names of the enabled parameters which apply to a single run of the checks - change detection, result cache,
+     * streaming and reports.
+     */
+    protected List<String> getEnabledSingleRunParameters() {
+        final List<String> parameters = new ArrayList<>();
+        if (changeDetection != ChangeDetection.NONE) {
+            parameters.add("changeDetection");
+        }
+        if (useResultCache) {
+            parameters.add("useResultCache");
+        }
+        if (streaming) {
+            parameters.add("streaming");
+        }
+        if (reportFormats != null && !reportFormats.isEmpty()) {
+            parameters.add("reportFormats");
+        }
+        if (writeMetricsReport) {
+            parameters.add("writeMetricsReport");
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns scope of cached results - schema registry (or its snapshot) and check strategy the results were computed by.
+     */
+    private String getResultCacheScope() {
+        final String registry = registrySnapshotFile != null ? "snapshot:" + registrySnapshotFile.getAbsolutePath() : String.join(",", getSchemaRegistryUrls());
+        return registry + "|" + compatibilityCheckStrategy;
+    }
+
+    /**
+     * Adds registry snapshot and settings of the session itself - limit of concurrent requests - to the key.
+     */
+    @Override
+    protected List<Object> getRegistryKey() {
+        final List<Object> registryKey = super.getRegistryKey();
+        registryKey.addAll(Arrays.asList(registrySnapshotFile, maxConcurrentRequestsPerHost));
+        return registryKey;
+    }
+
+    /**
+     * Creates configured instance of schema registry client. Client backed by registry snapshot is created, if
+     * {@link #registrySnapshotFile} is configured.
+     */
+    @Override
     protected SchemaRegistryClient buildClient() {
-        Map<String, String> config = new HashMap<>();
-        if (userInfoConfig != null) {
-            // Note that BASIC_AUTH_CREDENTIALS_SOURCE is not configurable as the plugin only supports
-            // a single schema registry URL, so there is no additional utility of the URL source.
-            config.put(SchemaRegistryClientConfig.BASIC_AUTH_CREDENTIALS_SOURCE, "USER_INFO");
-            config.put(SchemaRegistryClientConfig.USER_INFO_CONFIG, userInfoConfig);
+        if (registrySnapshotFile != null) {
+            getLog().info(String.format("Checking compatibility against registry snapshot %s.", registrySnapshotFile));
+            return SnapshotSchemaRegistryClient.load(registrySnapshotFile);
         }
-        return new CachedSchemaRegistryClient(this.schemaRegistryUrls, 1000, config);
+        return super.buildClient();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,353 @@
+package io.zonky.kafka.registry.compatibility.mojo;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckExecutor;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckStrategy;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckSummary;
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormats;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import io.zonky.kafka.registry.compatibility.registry.RegistryEndpoint;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RegistrySession;
+import io.zonky.kafka.registry.compatibility.registry.SubjectIndex;
+import io.zonky.kafka.registry.compatibility.schema.AffectedSchemaFiles;
+import io.zonky.kafka.registry.compatibility.schema.ImportRegistry;
+import io.zonky.kafka.registry.compatibility.schema.SchemaFileLoader;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+/**
+ * Checks all the schema files once and then watches directories of schema filesets and imports. Every time a file is saved,
+ * only the changed schema files and the schema files depending on a changed import are checked again.
+ * <p>
+ * Schema registry client, index of subjects, cache of remote subjects and parsed imports are kept in memory between the
+ * checks. Subjects are refreshed periodically in the background, so the checks don't wait for the registry to be listed.
+ * Incompatibilities and failures are only reported, they never stop the goal. The goal runs until it's interrupted (e.g. by
+ * Ctrl+C), so it has to be invoked directly from command line.
+ * <p>
+ * Change detection, result cache, streaming and reports are not supported, the goal warns about them if they're enabled.
+ */
+@Mojo(name = "watch", requiresDirectInvocation = true)
+public class WatchSchemaCompatibilityMojo extends TestSchemaCompatibilityMojo {
+
+    /**
+     * Time to wait for further changes after a change is detected, so that a save touching several files (or writing a single
+     * file in several steps) results in a single check.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.watch-debounce-ms", defaultValue = "100")
+    private long watchDebounceMs = 100;
+
+    /**
+     * Interval of refreshing subjects of remote schema registry in the background, zero disables the refresh. With LOCAL
+     * compatibility check strategy, relevant versions of the subjects matching already checked schema types are refreshed too.
+     */
+    @Parameter(property = "schema-registry-compatibility-plugin.subject-refresh-interval-ms", defaultValue = "60000")
+    private long subjectRefreshIntervalMs = 60000;
+
+    private final AtomicReference<RegistrySession> registrySession = new AtomicReference<>();
+    private final Set<Path> watchedTrees = new LinkedHashSet<>();
+    private final Set<String> checkedSchemaTypeNames = ConcurrentHashMap.newKeySet();
+    private SchemaFormats schemaFormats;
+    private ImportRegistry importRegistry;
+    private Set<File> importFiles;
+
+    /**
+     * Checks all the schema files and then keeps checking the changed ones until interrupted.
+     */
+    @Override
+    public void execute() throws MojoExecutionException {
+        final List<String> ignoredParameters = getEnabledSingleRunParameters();
+        if (!ignoredParameters.isEmpty()) {
+            getLog().warn(String.format("Parameters %s are not supported by watch goal, they're ignored.", ignoredParameters));
+        }
+        schemaFormats = loadSchemaFormats();
+        importFiles = getImportFiles().stream().map(FileUtils::canonical).collect(Collectors.toSet());
+        importRegistry = loadImports();
+        registrySession.set(newRegistrySession());
+        final List<File> schemaFiles = scanSchemaFiles();
+        verifySchemaFormats(schemaFiles, schemaFormats, registrySession.get());
+
+        check(schemaFiles);
+
+        final ScheduledExecutorService subjectRefresher = startSubjectRefresh();
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            // directories of filesets are watched with all their subdirectories, directories of imports only by themselves
+            getSchemaFileSetDirectories().forEach(directory -> watchedTrees.add(FileUtils.canonical(directory).toPath()));
+            final Set<Path> importDirectories = importFiles.stream().map(importFile -> importFile.toPath().getParent()).collect(Collectors.toSet());
+            for (final Path directory : watchedTrees) {
+                if (Files.isDirectory(directory)) {
+                    registerTree(watchService, directory);
+                } else {
+                    getLog().warn(String.format("Directory %s doesn't exist, it's not watched.", directory));
+                }
+            }
+            for (final Path directory : importDirectories) {
+                if (Files.isDirectory(directory)) {
+                    register(watchService, directory);
+                } else {
+                    getLog().warn(String.format("Directory %s doesn't exist, it's not watched.", directory));
+                }
+            }
+            getLog().info(String.format("Watching %s schema director(ies) and %s import director(ies) for changes, press Ctrl+C to stop.",
+                    watchedTrees.size(), importDirectories.size()));
+            watch(watchService);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to watch schema files", e);
+        } finally {
+            if (subjectRefresher != null) {
+                subjectRefresher.shutdownNow();
+            }
+        }
+    }
+
+    private void watch(final WatchService watchService) throws IOException {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Set<File> changedFiles;
+            try {
+                changedFiles = awaitChanges(watchService);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            try {
+                onChange(changedFiles);
+            } catch (RuntimeException e) {
+                getLog().error(String.format("Unable to process changes of %s, waiting for further changes", changedFiles), e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the first change and collects all the changes following it within {@link #watchDebounceMs}.
+     *
+     * @param watchService watch service all the directories are registered to
+     */
+    private Set<File> awaitChanges(final WatchService watchService) throws InterruptedException, IOException {
+        final Set<File> changedFiles = new LinkedHashSet<>();
+        boolean overflow = false;
+        WatchKey key = watchService.take();
+        while (key != null) {
+            final Path directory = (Path) key.watchable();
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                final Path path = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path) && isInWatchedTree(path)) {
+                    // files may have been created before the new directory got registered
+                    registerTree(watchService, path).forEach(file -> changedFiles.add(FileUtils.canonical(file.toFile())));
+                } else {
+                    changedFiles.add(FileUtils.canonical(path.toFile()));
+                }
+            }
+            key.reset();
+            key = watchService.poll(watchDebounceMs, TimeUnit.MILLISECONDS);
+        }
+        if (overflow) {
+            // some events were lost, so everything is considered changed
+            scanSchemaFiles().forEach(file -> changedFiles.add(FileUtils.canonical(file)));
+            changedFiles.addAll(importFiles);
+        }
+        return changedFiles;
+    }
+
+    private boolean isInWatchedTree(final Path path) {
+        return watchedTrees.stream().anyMatch(path::startsWith);
+    }
+
+    /**
+     * Registers given directory and all its subdirectories, returns regular files found in them.
+     *
+     * @param watchService watch service the directories are registered to
+     * @param root         root directory
+     */
+    private static List<Path> registerTree(final WatchService watchService, final Path root) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) throws IOException {
+                register(watchService, directory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static void register(final WatchService watchService, final Path directory) throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Checks schema files affected by given changes. Imports are parsed again if any of them changed.
+     *
+     * @param changedFiles canonical changed files, may contain any other files as well
+     */
+    private void onChange(final Set<File> changedFiles) {
+        if (!Collections.disjoint(changedFiles, importFiles)) {
+            try {
+                importRegistry = loadImports();
+            } catch (SchemaCompatibilityCheckException e) {
+                getLog().error("Unable to parse imports, waiting for further changes", e.getCause());
+                return;
+            } catch (RuntimeException e) {
+                getLog().error("Unable to parse imports, waiting for further changes", e);
+                return;
+            }
+        }
+        final List<File> affectedFiles = AffectedSchemaFiles.select(scanSchemaFiles(), changedFiles, importRegistry, schemaFormats);
+        if (affectedFiles.isEmpty()) {
+            getLog().debug(String.format("Changed files %s don't affect any schema file.", changedFiles));
+            return;
+        }
+        getLog().info(String.format("Change detected, checking %s schema file(s).", affectedFiles.size()));
+        check(affectedFiles);
+    }
+
+    /**
+     * Checks given schema files against current subjects and reports the results. Files which can't be loaded are reported
+     * and skipped, failed checks never abort the others.
+     *
+     * @param schemaFiles schema files to be checked
+     */
+    private void check(final Collection<File> schemaFiles) {
+        final long start = System.nanoTime();
+        final RegistrySession session = registrySession.get();
+        final RegistryInvoker registryInvoker = newRegistryInvoker(session, new CheckMetrics());
+        final SchemaFileLoader schemaFileLoader = new SchemaFileLoader(importRegistry, schemaFormats);
+        final CompatibilityCheckSummary summary = new CompatibilityCheckSummary();
+        int unloadableFileCount = 0;
+        try (CompatibilityChecker checker = newCompatibilityChecker(session, registryInvoker, null);
+             CompatibilityCheckExecutor checkExecutor = newCheckExecutor(session, checker, false, result -> { })) {
+            final SubjectIndex subjectIndex = session.getSubjectIndex(getSchemaRegistrySubjectNamePattern(), () -> buildSubjectIndex(registryInvoker));
+            final List<SchemaFileCheckingContext> schemaFileCheckingContexts = new ArrayList<>(schemaFiles.size());
+            for (final File schemaFile : schemaFiles) {
+                try {
+                    schemaFileCheckingContexts.add(loadSchema(schemaFileLoader).apply(schemaFile));
+                } catch (SchemaCompatibilityCheckException e) {
+                    // already reported by the loader
+                    unloadableFileCount++;
+                } catch (RuntimeException e) {
+                    getLog().error(String.format("Unable to load schema file %s", schemaFile), e);
+                    unloadableFileCount++;
+                }
+            }
+            schemaFileCheckingContexts.forEach(addMatchingRegistrySubjectNames(subjectIndex));
+            checkExecutor.check(schemaFileCheckingContexts);
+            schemaFileCheckingContexts.forEach(ctx -> {
+                summary.add(ctx);
+                checkedSchemaTypeNames.add(ctx.getSchemaTypeFullName());
+                getLog().info(describeFileCheck(ctx));
+            });
+        } catch (RuntimeException e) {
+            // the check may fail on any unexpected schema or registry response, watching goes on regardless
+            getLog().error("Compatibility check failed, waiting for further changes", e);
+            return;
+        }
+
+        final List<String> problems = describeProblems(summary);
+        problems.forEach(problem -> getLog().error(problem));
+        warnFilesWithNoChecks(summary);
+        getLog().info(String.format("%s %s schema file(s) in %s ms.",
+                problems.isEmpty() && unloadableFileCount == 0 ? "OK, checked" : "FAILED, checked",
+                summary.getCheckedFileCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private ScheduledExecutorService startSubjectRefresh() {
+        if (subjectRefreshIntervalMs <= 0) {
+            return null;
+        }
+        final ScheduledExecutorService subjectRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "schema-registry-subject-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        subjectRefresher.scheduleWithFixedDelay(this::refreshSubjects, subjectRefreshIntervalMs, subjectRefreshIntervalMs, TimeUnit.MILLISECONDS);
+        return subjectRefresher;
+    }
+
+    /**
+     * Fetches remote state into a fresh registry session and replaces the current session by it. The current session is kept
+     * if the refresh fails.
+     */
+    private void refreshSubjects() {
+        final RegistrySession session = registrySession.get().refreshed();
+        final RegistryInvoker registryInvoker = newRegistryInvoker(session, new CheckMetrics());
+        final SubjectIndex subjectIndex;
+        try {
+            subjectIndex = session.getSubjectIndex(getSchemaRegistrySubjectNamePattern(), () -> listSubjects(registryInvoker));
+            if (getCompatibilityCheckStrategy() == CompatibilityCheckStrategy.LOCAL) {
+                for (final String schemaTypeName : checkedSchemaTypeNames) {
+                    subjectIndex.getSubjectNames(schemaTypeName).forEach(subject -> session.getRemoteSchemaCache().get(subject, registryInvoker));
+                }
+            }
+        } catch (SchemaCompatibilityCheckException e) {
+            getLog().warn(String.format("Unable to refresh subjects of schema registry, keeping the previous ones: %s",
+                    e.getCause() == null ? e.getMessage() : e.getCause().getMessage()));
+            return;
+        } catch (RuntimeException e) {
+            // an exception escaping the task would cancel all the following refreshes
+            getLog().warn("Unable to refresh subjects of schema registry, keeping the previous ones", e);
+            return;
+        }
+        registrySession.set(session);
+        getLog().debug(String.format("Refreshed %s subject(s) of schema registry.", subjectIndex.getSubjectCount()));
+    }
+
+    /**
+     * Builds index of subjects like {@link #buildSubjectIndex(RegistryInvoker)}, but without repeating the warnings.
+     *
+     * @param registryInvoker invoker performing schema registry calls
+     */
+    private SubjectIndex listSubjects(final RegistryInvoker registryInvoker) {
+        try {
+            final Collection<String> subjectNames = registryInvoker.invoke(RegistryEndpoint.SUBJECTS, SchemaRegistryClient::getAllSubjects);
+            return SubjectIndex.build(subjectNames, Pattern.compile(getSchemaRegistrySubjectNamePattern()));
+        } catch (IOException | RestClientException e) {
+            throw new SchemaCompatibilityCheckException(e);
+        }
+    }
+}
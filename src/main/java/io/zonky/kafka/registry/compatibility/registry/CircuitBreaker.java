@@ -0,0 +1,81 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of a single schema registry URL. After given number of consecutive failed calls, the breaker opens and all the
+ * calls are rejected without contacting the registry. Once the open period elapses, a single trial call is let through - its
+ * success closes the breaker, its failure opens the breaker again.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Circuit breaker which never opens.
+     */
+    public static final CircuitBreaker DISABLED = new CircuitBreaker("", 0, 0);
+
+    private final String registryName;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private int consecutiveFailures;
+    private long openedAtMillis = -1;
+    private boolean trialInProgress;
+
+    /**
+     * @param registryName     name of the registry URL, used in error messages
+     * @param failureThreshold number of consecutive failures opening the breaker, zero disables the breaker
+     * @param openMillis       time the breaker stays open before a trial call is let through
+     */
+    public CircuitBreaker(final String registryName, final int failureThreshold, final long openMillis) {
+        this(registryName, failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(final String registryName, final int failureThreshold, final long openMillis, final LongSupplier clock) {
+        this.registryName = registryName;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks that a call may be performed, throws exception if the breaker is open.
+     */
+    public synchronized void acquire() {
+        if (!tryAcquire()) {
+            throw new SchemaCompatibilityCheckException(String.format(
+                    "Circuit breaker of schema registry %s is open after %s consecutive failures", registryName, consecutiveFailures), null);
+        }
+    }
+
+    /**
+     * Checks that a call may be performed, returns false if the breaker is open.
+     */
+    public synchronized boolean tryAcquire() {
+        if (failureThreshold <= 0 || openedAtMillis < 0) {
+            return true;
+        }
+        if (clock.getAsLong() - openedAtMillis < openMillis || trialInProgress) {
+            return false;
+        }
+        trialInProgress = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        openedAtMillis = -1;
+        trialInProgress = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (failureThreshold > 0 && (trialInProgress || consecutiveFailures >= failureThreshold)) {
+            openedAtMillis = clock.getAsLong();
+        }
+        trialInProgress = false;
+    }
+}
@@ -0,0 +1,199 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schema registry client tuned for checking compatibility of a few schemas against many subjects.
+ * <p>
+ * Request body of compatibility check is serialized once per schema and schema type and reused for all the subjects, until
+ * the schema itself is released. Besides Avro, schemas of any type supported by schema registry may be checked. Compatibility
+ * checks and per-subject lookups are sent by {@link RegistryRestService} directly, remaining calls are handled by
+ * {@link CachedSchemaRegistryClient} on top of the same service - all the requests thus share the same timeouts, SSL and
+ * authentication settings and persistent connections.
+ */
+public class KeepAliveSchemaRegistryClient extends CachedSchemaRegistryClient implements SchemaTypeAwareClient {
+
+    private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+    private static final Map<String, String> REQUEST_PROPERTIES = Collections.singletonMap("Accept", CONTENT_TYPE);
+    private static final Map<String, String> REQUEST_WITH_BODY_PROPERTIES;
+
+    static {
+        final Map<String, String> properties = new HashMap<>(REQUEST_PROPERTIES);
+        properties.put("Content-Type", CONTENT_TYPE);
+        REQUEST_WITH_BODY_PROPERTIES = Collections.unmodifiableMap(properties);
+    }
+
+    private final RegistryRestService restService;
+    private final Map<Schema, byte[]> avroCompatibilityRequestBodies = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, Map<String, byte[]>> compatibilityRequestBodies = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param restService         REST client of the schema registry
+     * @param identityMapCapacity maximal number of schemas cached by the client
+     * @param config              client configuration
+     */
+    public KeepAliveSchemaRegistryClient(final RegistryRestService restService, final int identityMapCapacity, final Map<String, ?> config) {
+        super(restService, identityMapCapacity, config);
+        this.restService = restService;
+    }
+
+    @Override
+    public boolean testCompatibility(final String subject, final Schema schema) throws IOException, RestClientException {
+        final byte[] body = avroCompatibilityRequestBodies.computeIfAbsent(schema, key -> compatibilityRequestBody(null, schema.toString()));
+        return testCompatibility(subject, body);
+    }
+
+    @Override
+    public boolean testCompatibility(final String subject, final String schemaType, final String schema) throws IOException, RestClientException {
+        final byte[] body = compatibilityRequestBodies.computeIfAbsent(schema, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(schemaType, key -> compatibilityRequestBody(schemaType, schema));
+        return testCompatibility(subject, body);
+    }
+
+    private boolean testCompatibility(final String subject, final byte[] body) throws IOException, RestClientException {
+        final String path = "/compatibility/subjects/" + encode(subject) + "/versions/latest";
+        final JsonObject response = object(path, send("POST", path, body));
+        final JsonPrimitive compatible = primitive(path, response, "is_compatible");
+        if (!compatible.isBoolean()) {
+            throw unexpectedResponse(path, response);
+        }
+        return compatible.getAsBoolean();
+    }
+
+    @Override
+    public SchemaMetadata getLatestSchemaMetadata(final String subject) throws IOException, RestClientException {
+        final String path = "/subjects/" + encode(subject) + "/versions/latest";
+        return toSchemaMetadata(path, send("GET", path, null));
+    }
+
+    @Override
+    public SchemaMetadata getSchemaMetadata(final String subject, final int version) throws IOException, RestClientException {
+        final String path = "/subjects/" + encode(subject) + "/versions/" + version;
+        return toSchemaMetadata(path, send("GET", path, null));
+    }
+
+    @Override
+    public List<Integer> getAllVersions(final String subject) throws IOException, RestClientException {
+        final String path = "/subjects/" + encode(subject) + "/versions";
+        final JsonElement response = send("GET", path, null);
+        if (!response.isJsonArray()) {
+            throw unexpectedResponse(path, response);
+        }
+        final List<Integer> versions = new ArrayList<>();
+        for (final JsonElement version : response.getAsJsonArray()) {
+            if (!isNumber(version)) {
+                throw unexpectedResponse(path, response);
+            }
+            versions.add(version.getAsInt());
+        }
+        return versions;
+    }
+
+    @Override
+    public String getCompatibility(final String subject) throws IOException, RestClientException {
+        final String path = subject == null ? "/config" : "/config/" + encode(subject);
+        final JsonObject response = object(path, send("GET", path, null));
+        final JsonElement level = response.get("compatibilityLevel");
+        if (level == null || level.isJsonNull()) {
+            return null;
+        }
+        if (!level.isJsonPrimitive() || !level.getAsJsonPrimitive().isString()) {
+            throw unexpectedResponse(path, response);
+        }
+        return level.getAsString();
+    }
+
+    /**
+     * Sends request to the schema registry and returns parsed response.
+     *
+     * @param method http method
+     * @param path   path of the endpoint
+     * @param body   request body, or null
+     */
+    private JsonElement send(final String method, final String path, final byte[] body) throws IOException, RestClientException {
+        final String response = restService.send(method, path, body, body == null ? REQUEST_PROPERTIES : REQUEST_WITH_BODY_PROPERTIES);
+        try {
+            return JsonParser.parseString(response == null ? "" : response);
+        } catch (JsonParseException e) {
+            throw new RestClientException("Unable to parse response of " + path, HttpURLConnection.HTTP_OK, RegistryRestService.JSON_PARSE_ERROR_CODE);
+        }
+    }
+
+    private static SchemaMetadata toSchemaMetadata(final String path, final JsonElement response) throws RestClientException {
+        final JsonObject metadata = object(path, response);
+        final JsonPrimitive id = primitive(path, metadata, "id");
+        final JsonPrimitive version = primitive(path, metadata, "version");
+        final JsonPrimitive schema = primitive(path, metadata, "schema");
+        if (!id.isNumber() || !version.isNumber() || !schema.isString()) {
+            throw unexpectedResponse(path, response);
+        }
+        return new SchemaMetadata(id.getAsInt(), version.getAsInt(), schema.getAsString());
+    }
+
+    /**
+     * Returns response of given endpoint as json object, fails if the response has another shape.
+     */
+    private static JsonObject object(final String path, final JsonElement response) throws RestClientException {
+        if (!response.isJsonObject()) {
+            throw unexpectedResponse(path, response);
+        }
+        return response.getAsJsonObject();
+    }
+
+    /**
+     * Returns primitive field of response of given endpoint, fails if the field is missing or it isn't a primitive.
+     */
+    private static JsonPrimitive primitive(final String path, final JsonObject response, final String field) throws RestClientException {
+        final JsonElement value = response.get(field);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw unexpectedResponse(path, response);
+        }
+        return value.getAsJsonPrimitive();
+    }
+
+    private static boolean isNumber(final JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    private static RestClientException unexpectedResponse(final String path, final JsonElement response) {
+        return new RestClientException(String.format("Unexpected response of %s: %s", path, response), HttpURLConnection.HTTP_OK,
+                RegistryRestService.JSON_PARSE_ERROR_CODE);
+    }
+
+    /**
+     * @param schemaType schema type, or null for Avro schema
+     * @param schema     schema definition
+     */
+    private static byte[] compatibilityRequestBody(final String schemaType, final String schema) {
+        final JsonObject request = new JsonObject();
+        if (schemaType != null) {
+            request.addProperty("schemaType", schemaType);
+        }
+        request.addProperty("schema", schema);
+        return request.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encode(final String pathSegment) throws IOException {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8.name()).replace("+", "%20");
+    }
+}
@@ -0,0 +1,17 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import java.io.IOException;
+
+/**
+ * Single call of schema registry performed via {@link RegistryInvoker}.
+ *
+ * @param <T> type of call result
+ */
+@FunctionalInterface
+public interface RegistryCall<T> {
+
+    T call(SchemaRegistryClient client) throws IOException, RestClientException;
+}
@@ -0,0 +1,25 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+/**
+ * Schema registry endpoints called by the plugin. Used to identify the calls in metrics.
+ */
+public enum RegistryEndpoint {
+    SUBJECTS("GET /subjects"),
+    SUBJECT_VERSIONS("GET /subjects/{subject}/versions"),
+    SUBJECT_VERSION("GET /subjects/{subject}/versions/{version}"),
+    SUBJECT_LATEST_VERSION("GET /subjects/{subject}/versions/latest"),
+    SCHEMA_BY_ID("GET /schemas/ids/{id}"),
+    CONFIG("GET /config/{subject}"),
+    COMPATIBILITY("POST /compatibility/subjects/{subject}/versions/latest");
+
+    private final String path;
+
+    RegistryEndpoint(final String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,82 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Performs all the calls of schema registry. Every call attempt is counted and its latency is recorded in metrics.
+ * <p>
+ * Calls failing with transient errors are retried according to {@link RetryPolicy}. Every attempt runs in the calling thread
+ * and it's bounded by connect and read timeouts of the client. Registry URLs that keep failing are skipped by circuit breakers
+ * of {@link RegistryRestService}.
+ */
+public class RegistryInvoker {
+
+    private final Supplier<SchemaRegistryClient> clientSupplier;
+    private final CheckMetrics metrics;
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * @param clientSupplier supplier that provides configured SchemaRegistryClient
+     * @param metrics        metrics of current execution
+     */
+    public RegistryInvoker(final Supplier<SchemaRegistryClient> clientSupplier, final CheckMetrics metrics) {
+        this(clientSupplier, metrics, RetryPolicy.NONE);
+    }
+
+    /**
+     * @param clientSupplier supplier that provides configured SchemaRegistryClient
+     * @param metrics        metrics of current execution
+     * @param retryPolicy    policy of retrying failed calls
+     */
+    public RegistryInvoker(final Supplier<SchemaRegistryClient> clientSupplier, final CheckMetrics metrics, final RetryPolicy retryPolicy) {
+        this.clientSupplier = clientSupplier;
+        this.metrics = metrics;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Performs single call of schema registry, retrying it on transient errors.
+     *
+     * @param endpoint endpoint being called
+     * @param call     the call itself
+     */
+    public <T> T invoke(final RegistryEndpoint endpoint, final RegistryCall<T> call) throws IOException, RestClientException {
+        final SchemaRegistryClient client = clientSupplier.get();
+        for (int retry = 0; ; retry++) {
+            try {
+                return attempt(endpoint, call, client);
+            } catch (IOException | RestClientException e) {
+                if (!retryPolicy.isRetryable(e) || retry >= retryPolicy.getMaxRetries()) {
+                    throw e;
+                }
+                metrics.increment(CheckMetrics.RETRIES);
+                sleep(retryPolicy.backoffMillis(retry + 1));
+            }
+        }
+    }
+
+    private <T> T attempt(final RegistryEndpoint endpoint, final RegistryCall<T> call, final SchemaRegistryClient client) throws IOException, RestClientException {
+        final long start = System.nanoTime();
+        try {
+            return call.call(client);
+        } finally {
+            metrics.recordLatency(endpoint.toString(), System.nanoTime() - start);
+            metrics.increment(CheckMetrics.REGISTRY_CALLS);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaCompatibilityCheckException("Interrupted while waiting for retry of schema registry call", e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientConfig;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.schemaregistry.client.security.basicauth.BasicAuthCredentialProvider;
+import io.confluent.kafka.schemaregistry.client.security.basicauth.BasicAuthCredentialProviderFactory;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REST client of schema registry applying connect and read timeouts to every request. Confluent {@link RestService} of the
+ * supported client version opens its connections without any timeouts, so a request to a hung registry would block its thread
+ * forever - this service replaces sending of all the requests of the Confluent client, keeping its SSL, basic auth credentials
+ * provider and http headers configuration.
+ * <p>
+ * Responses are always fully consumed and connections are never closed explicitly, so they are returned to the JDK keep-alive
+ * pool and reused by subsequent requests. The next registry URL is tried only if a request fails with {@link IOException},
+ * error responses of the registry (including server errors) are reported right away.
+ * <p>
+ * Every registry URL has its own {@link CircuitBreaker}, which counts I/O errors, server errors and throttling responses of
+ * the URL. URLs with open circuit breaker are skipped, so requests fail over to the remaining URLs without waiting for
+ * timeouts. Once the breakers of all the URLs are open, requests fail right away.
+ */
+public class RegistryRestService extends RestService {
+
+    static final int JSON_PARSE_ERROR_CODE = 50005;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final List<String> baseUrls;
+    private final List<CircuitBreaker> circuitBreakers;
+    private final AtomicInteger activeUrlIndex = new AtomicInteger();
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private volatile SSLSocketFactory sslSocketFactory;
+    private volatile BasicAuthCredentialProvider basicAuthCredentialProvider;
+    private volatile Map<String, String> httpHeaders = Collections.emptyMap();
+
+    /**
+     * @param baseUrls             URLs of the schema registry, tried in order until one of them responds
+     * @param connectTimeoutMillis timeout of opening connection
+     * @param readTimeoutMillis    timeout of reading response
+     */
+    public RegistryRestService(final List<String> baseUrls, final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this(baseUrls, connectTimeoutMillis, readTimeoutMillis, 0, 0);
+    }
+
+    /**
+     * @param baseUrls                      URLs of the schema registry, tried in order until one of them responds
+     * @param connectTimeoutMillis          timeout of opening connection
+     * @param readTimeoutMillis             timeout of reading response
+     * @param circuitBreakerFailureThreshold number of consecutive failures opening circuit breaker of a URL, zero disables the breakers
+     * @param circuitBreakerOpenMillis      time circuit breaker of a URL stays open before a trial request is let through
+     */
+    public RegistryRestService(final List<String> baseUrls, final int connectTimeoutMillis, final int readTimeoutMillis,
+                               final int circuitBreakerFailureThreshold, final long circuitBreakerOpenMillis) {
+        super(baseUrls);
+        this.baseUrls = new ArrayList<>(baseUrls.size());
+        this.circuitBreakers = new ArrayList<>(baseUrls.size());
+        for (final String url : baseUrls) {
+            final String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            this.baseUrls.add(baseUrl);
+            this.circuitBreakers.add(new CircuitBreaker(baseUrl, circuitBreakerFailureThreshold, circuitBreakerOpenMillis));
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs) {
+        super.configure(configs);
+        final Object credentialsSource = configs.get(SchemaRegistryClientConfig.BASIC_AUTH_CREDENTIALS_SOURCE);
+        if (credentialsSource != null && !credentialsSource.toString().isEmpty()) {
+            basicAuthCredentialProvider = BasicAuthCredentialProviderFactory.getBasicAuthCredentialProvider(credentialsSource.toString(), configs);
+        }
+    }
+
+    @Override
+    public void setSslSocketFactory(final SSLSocketFactory sslSocketFactory) {
+        super.setSslSocketFactory(sslSocketFactory);
+        this.sslSocketFactory = sslSocketFactory;
+    }
+
+    @Override
+    public void setBasicAuthCredentialProvider(final BasicAuthCredentialProvider basicAuthCredentialProvider) {
+        super.setBasicAuthCredentialProvider(basicAuthCredentialProvider);
+        this.basicAuthCredentialProvider = basicAuthCredentialProvider;
+    }
+
+    @Override
+    public void setHttpHeaders(final Map<String, String> httpHeaders) {
+        super.setHttpHeaders(httpHeaders);
+        this.httpHeaders = httpHeaders == null ? Collections.emptyMap() : new HashMap<>(httpHeaders);
+    }
+
+    /**
+     * Sends request of the Confluent client and deserializes its response.
+     */
+    @Override
+    public <T> T httpRequest(final String path, final String method, final byte[] requestBodyData, final Map<String, String> requestProperties,
+                             final TypeReference<T> responseFormat) throws IOException, RestClientException {
+        final String response = send(method, path, requestBodyData, requestProperties);
+        if (response == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(response, responseFormat);
+        } catch (JsonProcessingException e) {
+            throw new RestClientException("Unable to parse response of " + path + ": " + e.getOriginalMessage(), HttpURLConnection.HTTP_OK, JSON_PARSE_ERROR_CODE);
+        }
+    }
+
+    /**
+     * Sends request to the first responding registry URL and returns body of its successful response, or null if the response
+     * has no content. URLs with open circuit breaker are skipped.
+     *
+     * @param method            http method
+     * @param path              path of the endpoint
+     * @param body              request body, or null
+     * @param requestProperties http headers of the request
+     */
+    public String send(final String method, final String path, final byte[] body, final Map<String, String> requestProperties)
+            throws IOException, RestClientException {
+        IOException failure = null;
+        final int startIndex = activeUrlIndex.get();
+        for (int i = 0; i < baseUrls.size(); i++) {
+            final int urlIndex = (startIndex + i) % baseUrls.size();
+            final CircuitBreaker circuitBreaker = circuitBreakers.get(urlIndex);
+            if (!circuitBreaker.tryAcquire()) {
+                continue;
+            }
+            try {
+                final String response = sendTo(baseUrls.get(urlIndex) + (path.startsWith("/") ? path : "/" + path), method, body, requestProperties);
+                circuitBreaker.onSuccess();
+                activeUrlIndex.set(urlIndex);
+                return response;
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                // failure of the active URL is reported, failures of the others are attached to it
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            } catch (RestClientException e) {
+                // the registry responded, so only transient errors count as failures of the URL
+                if (RetryPolicy.isTransient(e)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+        }
+        if (failure == null && !baseUrls.isEmpty()) {
+            throw new SchemaCompatibilityCheckException(String.format("Circuit breakers of all the schema registry URLs %s are open", baseUrls), null);
+        }
+        throw failure != null ? failure : new IOException("No schema registry URL configured");
+    }
+
+    private String sendTo(final String url, final String method, final byte[] body, final Map<String, String> requestProperties)
+            throws IOException, RestClientException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setUseCaches(false);
+        if (connection instanceof HttpsURLConnection && sslSocketFactory != null) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(sslSocketFactory);
+        }
+        final BasicAuthCredentialProvider credentialProvider = basicAuthCredentialProvider;
+        final String userInfo = credentialProvider == null ? null : credentialProvider.getUserInfo(connection.getURL());
+        if (userInfo != null) {
+            connection.setRequestProperty("Authorization", "Basic " + Base64.getEncoder().encodeToString(userInfo.getBytes(StandardCharsets.UTF_8)));
+        }
+        httpHeaders.forEach(connection::setRequestProperty);
+        if (requestProperties != null) {
+            requestProperties.forEach(connection::setRequestProperty);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body);
+            }
+        }
+
+        final int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_OK) {
+            return FileUtils.readFully(connection.getInputStream());
+        }
+        if (status == HttpURLConnection.HTTP_NO_CONTENT) {
+            FileUtils.readFully(connection.getInputStream());
+            return null;
+        }
+        throw toRestClientException(url, status, FileUtils.readFully(connection.getErrorStream()));
+    }
+
+    /**
+     * Converts error response of schema registry to exception, keeping message and error code of the registry if the response
+     * holds them.
+     */
+    private static RestClientException toRestClientException(final String url, final int status, final String error) {
+        final JsonElement errorMessage = parse(error);
+        if (errorMessage != null && errorMessage.isJsonObject()) {
+            final JsonObject fields = errorMessage.getAsJsonObject();
+            if (isPrimitive(fields, "message") && isPrimitive(fields, "error_code") && fields.getAsJsonPrimitive("error_code").isNumber()) {
+                return new RestClientException(fields.get("message").getAsString(), status, fields.get("error_code").getAsInt());
+            }
+        }
+        return new RestClientException(String.format("Unexpected response of %s: %s", url, error), status, JSON_PARSE_ERROR_CODE);
+    }
+
+    private static JsonElement parse(final String json) {
+        try {
+            return JsonParser.parseString(json);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPrimitive(final JsonObject object, final String field) {
+        return object.has(field) && object.get(field).isJsonPrimitive();
+    }
+}
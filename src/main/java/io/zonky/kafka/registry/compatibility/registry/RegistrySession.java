@@ -0,0 +1,64 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.check.RegistryHostLimiter;
+import io.zonky.kafka.registry.compatibility.util.LazySupplier;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * State shared by all the executions working with the same schema registry - the client, indexes of subjects, cache of remote
+ * subjects and limiter of concurrent requests. All the state is created lazily and it's safe for concurrent use.
+ */
+public class RegistrySession {
+
+    private final Supplier<SchemaRegistryClient> clientSupplier;
+    private final RegistryHostLimiter hostLimiter;
+    private final RemoteSchemaCache remoteSchemaCache = new RemoteSchemaCache();
+    private final ConcurrentMap<String, Supplier<SubjectIndex>> subjectIndexesByPattern = new ConcurrentHashMap<>();
+
+    /**
+     * @param clientFactory                creates schema registry client, called at most once
+     * @param maxConcurrentRequestsPerHost maximal number of requests running concurrently against single registry host
+     */
+    public RegistrySession(final Supplier<SchemaRegistryClient> clientFactory, final int maxConcurrentRequestsPerHost) {
+        this(new LazySupplier<>(clientFactory), new RegistryHostLimiter(maxConcurrentRequestsPerHost));
+    }
+
+    private RegistrySession(final Supplier<SchemaRegistryClient> clientSupplier, final RegistryHostLimiter hostLimiter) {
+        this.clientSupplier = clientSupplier;
+        this.hostLimiter = hostLimiter;
+    }
+
+    /**
+     * Creates a new session sharing the client (including circuit breakers of its registry URLs) and limiter of this session,
+     * but with empty indexes of subjects and cache of remote subjects, so the remote state is fetched again.
+     */
+    public RegistrySession refreshed() {
+        return new RegistrySession(clientSupplier, hostLimiter);
+    }
+
+    public Supplier<SchemaRegistryClient> getClientSupplier() {
+        return clientSupplier;
+    }
+
+    public RegistryHostLimiter getHostLimiter() {
+        return hostLimiter;
+    }
+
+    public RemoteSchemaCache getRemoteSchemaCache() {
+        return remoteSchemaCache;
+    }
+
+    /**
+     * Returns index of remote subjects built for given subject name pattern, builds it on the first call.
+     *
+     * @param subjectNamePattern  pattern used to extract schema type names from subject names
+     * @param subjectIndexBuilder builds the index, called at most once per pattern
+     */
+    public SubjectIndex getSubjectIndex(final String subjectNamePattern, final Supplier<SubjectIndex> subjectIndexBuilder) {
+        return subjectIndexesByPattern.computeIfAbsent(subjectNamePattern, pattern -> new LazySupplier<>(subjectIndexBuilder)).get();
+    }
+}
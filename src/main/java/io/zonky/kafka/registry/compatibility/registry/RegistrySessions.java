@@ -0,0 +1,36 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Holder of registry sessions shared by all the executions of a single build (e.g. by all the modules of a reactor build).
+ * <p>
+ * Sessions are bound to an object identifying the build. They're released together with the object, so they never outlive
+ * the build even if the plugin classes are reused by several builds.
+ */
+public final class RegistrySessions {
+
+    private static final Map<Object, ConcurrentMap<Object, RegistrySession>> SESSIONS_BY_BUILD = new WeakHashMap<>();
+
+    private RegistrySessions() {
+    }
+
+    /**
+     * Returns session of given schema registry bound to given build, creates it on the first call.
+     *
+     * @param build          object identifying the build
+     * @param registryKey    key identifying schema registry and its configuration, sessions are shared by equal keys
+     * @param sessionFactory creates the session, called at most once per build and registry
+     */
+    public static RegistrySession get(final Object build, final Object registryKey, final Supplier<RegistrySession> sessionFactory) {
+        final ConcurrentMap<Object, RegistrySession> sessions;
+        synchronized (SESSIONS_BY_BUILD) {
+            sessions = SESSIONS_BY_BUILD.computeIfAbsent(build, b -> new ConcurrentHashMap<>());
+        }
+        return sessions.computeIfAbsent(registryKey, key -> sessionFactory.get());
+    }
+}
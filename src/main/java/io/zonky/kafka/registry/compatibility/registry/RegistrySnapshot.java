@@ -0,0 +1,194 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Versioned snapshot of remote schema registry - its subjects, their versions and compatibility levels and all the schemas.
+ * <p>
+ * Every schema is stored once, versions of subjects refer to schemas by their ids. Snapshot files with ".gz" extension are
+ * gzip compressed. Only Avro schemas may be stored, capturing a subject with a schema of another type fails.
+ */
+public class RegistrySnapshot {
+
+    /**
+     * Version of snapshot file format, snapshots in other versions are rejected.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private int formatVersion = FORMAT_VERSION;
+    private String createdAt;
+    private String globalCompatibilityLevel;
+    private Map<String, Subject> subjects = new TreeMap<>();
+    private Map<Integer, String> schemas = new TreeMap<>();
+
+    /**
+     * Fetches all the data from remote schema registry.
+     *
+     * @param client        schema registry client
+     * @param subjectFilter predicate selecting subjects to be included in the snapshot
+     */
+    public static RegistrySnapshot capture(final SchemaRegistryClient client, final Predicate<String> subjectFilter) throws IOException, RestClientException {
+        final RegistrySnapshot snapshot = new RegistrySnapshot();
+        snapshot.createdAt = Instant.now().toString();
+        snapshot.globalCompatibilityLevel = client.getCompatibility(null);
+
+        for (final String subjectName : client.getAllSubjects()) {
+            if (!subjectFilter.test(subjectName)) {
+                continue;
+            }
+            final Subject subject = new Subject();
+            subject.compatibilityLevel = fetchSubjectCompatibilityLevel(client, subjectName);
+            for (final Integer version : client.getAllVersions(subjectName)) {
+                final SchemaMetadata metadata = client.getSchemaMetadata(subjectName, version);
+                subject.schemaIdsByVersion.put(metadata.getVersion(), metadata.getId());
+                if (!snapshot.schemas.containsKey(metadata.getId())) {
+                    verifyAvroSchema(subjectName, metadata);
+                    snapshot.schemas.put(metadata.getId(), metadata.getSchema());
+                }
+            }
+            snapshot.subjects.put(subjectName, subject);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads snapshot from given file.
+     *
+     * @param file snapshot file
+     */
+    public static RegistrySnapshot read(final File file) {
+        try (InputStream inputStream = open(file); Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            final RegistrySnapshot snapshot = GSON.fromJson(reader, RegistrySnapshot.class);
+            if (snapshot == null || snapshot.formatVersion != FORMAT_VERSION) {
+                throw new SchemaCompatibilityCheckException(String.format("Unsupported format of registry snapshot %s, expected version %s",
+                        file, FORMAT_VERSION), null);
+            }
+            return snapshot;
+        } catch (IOException | JsonParseException e) {
+            throw new SchemaCompatibilityCheckException("Unable to read registry snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Writes snapshot to given file. The snapshot is written to a temporary file first and then moved in place of the given one,
+     * so an existing snapshot is never left partially written.
+     *
+     * @param file snapshot file
+     */
+    public void write(final File file) {
+        try {
+            FileUtils.writeAtomically(file, tempFile -> {
+                try (OutputStream outputStream = create(tempFile, isCompressed(file)); Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+                    GSON.toJson(this, writer);
+                }
+            });
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write registry snapshot " + file, e);
+        }
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getGlobalCompatibilityLevel() {
+        return globalCompatibilityLevel;
+    }
+
+    public Map<String, Subject> getSubjects() {
+        return Collections.unmodifiableMap(subjects);
+    }
+
+    public Map<Integer, String> getSchemas() {
+        return Collections.unmodifiableMap(schemas);
+    }
+
+    private static String fetchSubjectCompatibilityLevel(final SchemaRegistryClient client, final String subjectName) throws IOException, RestClientException {
+        try {
+            return client.getCompatibility(subjectName);
+        } catch (RestClientException e) {
+            if (e.getStatus() == HTTP_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fails if given schema isn't an Avro schema - the snapshot client evaluates compatibility of Avro schemas only, so
+     * schemas of other types would fail every check against the snapshot.
+     */
+    private static void verifyAvroSchema(final String subjectName, final SchemaMetadata metadata) {
+        try {
+            new Schema.Parser().parse(metadata.getSchema());
+        } catch (SchemaParseException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Schema id %s of subject %s (version %s) is not an Avro schema, "
+                    + "registry snapshot supports only Avro schemas - exclude the subject by snapshotSubjectNameFilter",
+                    metadata.getId(), subjectName, metadata.getVersion()), e);
+        }
+    }
+
+    private static InputStream open(final File file) throws IOException {
+        final InputStream inputStream = Files.newInputStream(file.toPath());
+        return isCompressed(file) ? new GZIPInputStream(inputStream) : inputStream;
+    }
+
+    private static OutputStream create(final Path file, final boolean compressed) throws IOException {
+        final OutputStream outputStream = Files.newOutputStream(file);
+        return compressed ? new GZIPOutputStream(outputStream) : outputStream;
+    }
+
+    private static boolean isCompressed(final File file) {
+        return file.getName().endsWith(".gz");
+    }
+
+    /**
+     * Single subject of the snapshot.
+     */
+    public static class Subject {
+        private String compatibilityLevel;
+        private Map<Integer, Integer> schemaIdsByVersion = new TreeMap<>();
+
+        /**
+         * Returns compatibility level configured for the subject, or null if the subject uses the global one.
+         */
+        public String getCompatibilityLevel() {
+            return compatibilityLevel;
+        }
+
+        public Map<Integer, Integer> getSchemaIdsByVersion() {
+            return Collections.unmodifiableMap(schemaIdsByVersion);
+        }
+    }
+}
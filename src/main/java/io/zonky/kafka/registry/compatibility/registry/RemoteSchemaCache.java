@@ -0,0 +1,141 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityLevel;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.LazySupplier;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of remote schema registry subjects. Compatibility level and relevant versions of every subject are fetched at most once,
+ * schemas are parsed at most once per schema id.
+ * <p>
+ * Only the latest version is fetched for non-transitive compatibility levels, all versions are fetched for transitive ones.
+ * Individual versions of a subject may also be fetched on demand (e.g. for checks against version history), every version is
+ * fetched at most once this way. The latest version fetched for non-transitive levels is reused by on-demand requests of the same
+ * version, but it's fetched once more via its latest endpoint if it was requested on demand first.
+ * <p>
+ * The cache is thread-safe and may be shared by several executions, every execution performs the calls via its own invoker.
+ */
+public class RemoteSchemaCache {
+
+    private final SubjectCompatibilityLevels compatibilityLevels = new SubjectCompatibilityLevels();
+    private final ConcurrentMap<String, Supplier<RemoteSubject>> subjectsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<CompatibilityLevel>> compatibilityLevelsBySubject = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<List<Integer>>> versionNumbersBySubject = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<RemoteSchemaVersion>> versionsBySubjectAndNumber = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+
+    /**
+     * Returns remote subject of given name, fetches it on the first call.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    public RemoteSubject get(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        return subjectsByName.computeIfAbsent(registrySubjectName, subject -> new LazySupplier<>(() -> fetch(subject, registryInvoker))).get();
+    }
+
+    /**
+     * Returns compatibility level of given subject, fetches it on the first call.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    public CompatibilityLevel getCompatibilityLevel(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        return compatibilityLevelsBySubject.computeIfAbsent(registrySubjectName, subject -> new LazySupplier<>(
+                () -> CompatibilityLevel.forName(compatibilityLevels.get(subject, registryInvoker)))).get();
+    }
+
+    /**
+     * Returns numbers of all the versions of given subject, the latest version first. Fetches them on the first call.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    public List<Integer> getVersionNumbers(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        return versionNumbersBySubject.computeIfAbsent(registrySubjectName, subject -> new LazySupplier<>(
+                () -> fetchVersionNumbers(subject, registryInvoker))).get();
+    }
+
+    /**
+     * Returns given version of given subject, fetches it on the first call. Schema is parsed only if no other version with
+     * the same schema id was fetched before.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param version             version number
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    public RemoteSchemaVersion getVersion(final String registrySubjectName, final int version, final RegistryInvoker registryInvoker) {
+        return versionsBySubjectAndNumber.computeIfAbsent(registrySubjectName + "|" + version, key -> new LazySupplier<>(
+                () -> fetchVersion(registrySubjectName, version, registryInvoker))).get();
+    }
+
+    private RemoteSubject fetch(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        final CompatibilityLevel compatibilityLevel = getCompatibilityLevel(registrySubjectName, registryInvoker);
+        final List<Schema> schemas = new ArrayList<>();
+        Integer latestVersion = null;
+        if (compatibilityLevel.isTransitive()) {
+            final List<Integer> versions = getVersionNumbers(registrySubjectName, registryInvoker);
+            for (final Integer version : versions) {
+                schemas.add(getVersion(registrySubjectName, version, registryInvoker).getSchema());
+            }
+            latestVersion = versions.isEmpty() ? null : versions.get(0);
+        } else if (compatibilityLevel != CompatibilityLevel.NONE) {
+            final SchemaMetadata metadata = fetchMetadata(registrySubjectName, registryInvoker, RegistryEndpoint.SUBJECT_LATEST_VERSION,
+                    client -> client.getLatestSchemaMetadata(registrySubjectName));
+            final RemoteSchemaVersion remoteVersion = new RemoteSchemaVersion(metadata.getVersion(), metadata.getId(),
+                    schemasById.computeIfAbsent(metadata.getId(), id -> parse(registrySubjectName, metadata)));
+            versionsBySubjectAndNumber.putIfAbsent(registrySubjectName + "|" + remoteVersion.getVersion(), () -> remoteVersion);
+            schemas.add(remoteVersion.getSchema());
+            latestVersion = remoteVersion.getVersion();
+        }
+        return new RemoteSubject(registrySubjectName, compatibilityLevel, Collections.unmodifiableList(schemas), latestVersion);
+    }
+
+    private static List<Integer> fetchVersionNumbers(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        try {
+            final List<Integer> versions = new ArrayList<>(registryInvoker.invoke(RegistryEndpoint.SUBJECT_VERSIONS,
+                    client -> client.getAllVersions(registrySubjectName)));
+            versions.sort(Comparator.reverseOrder());
+            return Collections.unmodifiableList(versions);
+        } catch (IOException | RestClientException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Unable to fetch versions of subject %s", registrySubjectName), e);
+        }
+    }
+
+    private RemoteSchemaVersion fetchVersion(final String registrySubjectName, final int version, final RegistryInvoker registryInvoker) {
+        final SchemaMetadata metadata = fetchMetadata(registrySubjectName, registryInvoker, RegistryEndpoint.SUBJECT_VERSION,
+                client -> client.getSchemaMetadata(registrySubjectName, version));
+        return new RemoteSchemaVersion(version, metadata.getId(), schemasById.computeIfAbsent(metadata.getId(), id -> parse(registrySubjectName, metadata)));
+    }
+
+    private static SchemaMetadata fetchMetadata(final String registrySubjectName, final RegistryInvoker registryInvoker,
+                                                final RegistryEndpoint endpoint, final RegistryCall<SchemaMetadata> call) {
+        try {
+            return registryInvoker.invoke(endpoint, call);
+        } catch (IOException | RestClientException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Unable to fetch versions of subject %s", registrySubjectName), e);
+        }
+    }
+
+    private static Schema parse(final String registrySubjectName, final SchemaMetadata metadata) {
+        try {
+            return new Schema.Parser().parse(metadata.getSchema());
+        } catch (SchemaParseException e) {
+            throw new SchemaCompatibilityCheckException(
+                    String.format("Unable to parse schema id %s of subject %s", metadata.getId(), registrySubjectName), e);
+        }
+    }
+}
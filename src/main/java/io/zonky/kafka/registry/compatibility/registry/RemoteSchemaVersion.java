@@ -0,0 +1,32 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import org.apache.avro.Schema;
+
+/**
+ * Single version of a remote schema registry subject with its parsed schema. Versions holding the same schema id share the same
+ * parsed schema instance.
+ */
+public class RemoteSchemaVersion {
+
+    private final int version;
+    private final int schemaId;
+    private final Schema schema;
+
+    public RemoteSchemaVersion(final int version, final int schemaId, final Schema schema) {
+        this.version = version;
+        this.schemaId = schemaId;
+        this.schema = schema;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getSchemaId() {
+        return schemaId;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+}
@@ -0,0 +1,49 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.zonky.kafka.registry.compatibility.check.CompatibilityLevel;
+import org.apache.avro.Schema;
+
+import java.util.List;
+
+/**
+ * Remote schema registry subject with its compatibility level and parsed schemas of versions relevant for compatibility checks.
+ */
+public class RemoteSubject {
+
+    private final String name;
+    private final CompatibilityLevel compatibilityLevel;
+    private final List<Schema> schemas;
+    private final Integer latestVersion;
+
+    /**
+     * @param name               subject name
+     * @param compatibilityLevel compatibility level of the subject
+     * @param schemas            schemas of relevant versions, the latest version first
+     * @param latestVersion      the latest version of the subject, or null if no version was fetched
+     */
+    public RemoteSubject(final String name, final CompatibilityLevel compatibilityLevel, final List<Schema> schemas, final Integer latestVersion) {
+        this.name = name;
+        this.compatibilityLevel = compatibilityLevel;
+        this.schemas = schemas;
+        this.latestVersion = latestVersion;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CompatibilityLevel getCompatibilityLevel() {
+        return compatibilityLevel;
+    }
+
+    /**
+     * Returns schemas of relevant versions, the latest version first.
+     */
+    public List<Schema> getSchemas() {
+        return schemas;
+    }
+
+    public Integer getLatestVersion() {
+        return latestVersion;
+    }
+}
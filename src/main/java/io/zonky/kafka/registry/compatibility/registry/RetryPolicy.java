@@ -0,0 +1,76 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy of retrying failed schema registry calls. Calls failing with I/O errors (including timeouts), server errors (5xx) or
+ * throttling (429) are retried with exponential backoff and full jitter. Other client errors are never retried.
+ */
+public class RetryPolicy {
+
+    /**
+     * Policy without any retries.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(0, 0, 0);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * @param maxRetries           maximal number of retries of a single call
+     * @param initialBackoffMillis upper bound of delay before the first retry, doubled with every next retry
+     * @param maxBackoffMillis     maximal delay between two retries
+     */
+    public RetryPolicy(final int maxRetries, final long initialBackoffMillis, final long maxBackoffMillis) {
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Whether the call failed because of transient error and it's worth retrying.
+     *
+     * @param e exception the call failed with
+     */
+    public boolean isRetryable(final Exception e) {
+        return isTransient(e);
+    }
+
+    /**
+     * Whether the call failed because of transient error - I/O error, server error or throttling.
+     *
+     * @param e exception the call failed with
+     */
+    static boolean isTransient(final Exception e) {
+        if (e instanceof IOException) {
+            return true;
+        }
+        if (e instanceof RestClientException) {
+            final int status = ((RestClientException) e).getStatus();
+            return status >= HTTP_SERVER_ERROR || status == HTTP_TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+
+    /**
+     * Returns randomized delay before given retry.
+     *
+     * @param retry number of the retry, starting with 1
+     */
+    public long backoffMillis(final int retry) {
+        final long exponentialBackoff = initialBackoffMillis << Math.min(retry - 1, 30);
+        final long boundedBackoff = Math.min(maxBackoffMillis, exponentialBackoff < 0 ? maxBackoffMillis : exponentialBackoff);
+        return boundedBackoff <= 0 ? 0 : ThreadLocalRandom.current().nextLong(boundedBackoff + 1);
+    }
+}
@@ -0,0 +1,21 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import java.io.IOException;
+
+/**
+ * Schema registry client able to check compatibility of schemas of any type supported by schema registry (AVRO, PROTOBUF,
+ * JSON), not only Avro ones.
+ */
+public interface SchemaTypeAwareClient {
+
+    /**
+     * Checks compatibility of schema with the latest version of given subject.
+     *
+     * @param subject    remote schema registry subject name
+     * @param schemaType schema type as used by schema registry
+     * @param schema     schema definition
+     */
+    boolean testCompatibility(String subject, String schemaType, String schema) throws IOException, RestClientException;
+}
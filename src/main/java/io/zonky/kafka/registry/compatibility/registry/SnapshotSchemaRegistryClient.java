@@ -0,0 +1,243 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityLevel;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only schema registry client serving data of {@link RegistrySnapshot} instead of remote schema registry.
+ * <p>
+ * Compatibility checks are evaluated locally according to compatibility levels stored in the snapshot. Missing subjects,
+ * versions and schemas are reported the same way as by remote schema registry, schemas which can't be parsed as Avro schemas
+ * are reported as invalid. All the operations modifying the registry fail the same way as in read-only mode of remote schema
+ * registry.
+ */
+public class SnapshotSchemaRegistryClient implements SchemaRegistryClient {
+
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_UNPROCESSABLE_ENTITY = 422;
+    private static final int SUBJECT_NOT_FOUND_ERROR_CODE = 40401;
+    private static final int VERSION_NOT_FOUND_ERROR_CODE = 40402;
+    private static final int SCHEMA_NOT_FOUND_ERROR_CODE = 40403;
+    private static final int INVALID_SCHEMA_ERROR_CODE = 42201;
+    private static final int OPERATION_NOT_PERMITTED_ERROR_CODE = 42205;
+    private static final String READ_ONLY_MODE = "READONLY";
+
+    private final RegistrySnapshot snapshot;
+    private final ConcurrentMap<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+
+    public SnapshotSchemaRegistryClient(final RegistrySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Creates client serving data of given snapshot file.
+     *
+     * @param snapshotFile snapshot file created by snapshot-registry goal
+     */
+    public static SnapshotSchemaRegistryClient load(final File snapshotFile) {
+        return new SnapshotSchemaRegistryClient(RegistrySnapshot.read(snapshotFile));
+    }
+
+    @Override
+    public Collection<String> getAllSubjects() {
+        return new ArrayList<>(snapshot.getSubjects().keySet());
+    }
+
+    @Override
+    public List<Integer> getAllVersions(final String subject) throws RestClientException {
+        return new ArrayList<>(subject(subject).getSchemaIdsByVersion().keySet());
+    }
+
+    @Override
+    public SchemaMetadata getLatestSchemaMetadata(final String subject) throws RestClientException {
+        final Map<Integer, Integer> schemaIdsByVersion = subject(subject).getSchemaIdsByVersion();
+        final Integer latestVersion = schemaIdsByVersion.keySet().stream().max(Comparator.naturalOrder())
+                .orElseThrow(() -> new RestClientException("Version not found.", HTTP_NOT_FOUND, VERSION_NOT_FOUND_ERROR_CODE));
+        return getSchemaMetadata(subject, latestVersion);
+    }
+
+    @Override
+    public SchemaMetadata getSchemaMetadata(final String subject, final int version) throws RestClientException {
+        final Integer schemaId = subject(subject).getSchemaIdsByVersion().get(version);
+        if (schemaId == null) {
+            throw new RestClientException("Version not found.", HTTP_NOT_FOUND, VERSION_NOT_FOUND_ERROR_CODE);
+        }
+        return new SchemaMetadata(schemaId, version, schemaString(schemaId));
+    }
+
+    @Override
+    public Schema getById(final int id) throws RestClientException {
+        final Schema cachedSchema = schemasById.get(id);
+        if (cachedSchema != null) {
+            return cachedSchema;
+        }
+        final Schema schema;
+        try {
+            schema = new Schema.Parser().parse(schemaString(id));
+        } catch (SchemaParseException e) {
+            throw new RestClientException(String.format("Schema id %s of registry snapshot is not a valid Avro schema: %s", id, e.getMessage()),
+                    HTTP_UNPROCESSABLE_ENTITY, INVALID_SCHEMA_ERROR_CODE);
+        }
+        final Schema previousSchema = schemasById.putIfAbsent(id, schema);
+        return previousSchema != null ? previousSchema : schema;
+    }
+
+    @Override
+    public Schema getBySubjectAndId(final String subject, final int id) throws RestClientException {
+        return getById(id);
+    }
+
+    /**
+     * Returns compatibility level of given subject, or the global one if subject is null. Subjects without their own
+     * compatibility level are reported as not found, the same way as by remote schema registry.
+     */
+    @Override
+    public String getCompatibility(final String subject) throws RestClientException {
+        if (subject == null) {
+            return snapshot.getGlobalCompatibilityLevel();
+        }
+        final String compatibilityLevel = subject(subject).getCompatibilityLevel();
+        if (compatibilityLevel == null) {
+            throw new RestClientException("Subject not found.", HTTP_NOT_FOUND, SUBJECT_NOT_FOUND_ERROR_CODE);
+        }
+        return compatibilityLevel;
+    }
+
+    @Override
+    public boolean testCompatibility(final String subject, final Schema schema) throws RestClientException {
+        final RegistrySnapshot.Subject snapshotSubject = subject(subject);
+        final String compatibilityLevel = snapshotSubject.getCompatibilityLevel() != null
+                ? snapshotSubject.getCompatibilityLevel()
+                : snapshot.getGlobalCompatibilityLevel();
+
+        final List<Integer> schemaIds = snapshotSubject.getSchemaIdsByVersion().entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByKey().reversed())
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        final List<Schema> schemas = new ArrayList<>(schemaIds.size());
+        for (final Integer schemaId : schemaIds) {
+            schemas.add(getById(schemaId));
+        }
+        return CompatibilityLevel.forName(compatibilityLevel).isCompatible(schema, schemas);
+    }
+
+    @Override
+    @Deprecated
+    public Schema getByID(final int id) throws RestClientException {
+        return getById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Schema getBySubjectAndID(final String subject, final int id) throws RestClientException {
+        return getBySubjectAndId(subject, id);
+    }
+
+    @Override
+    public int getVersion(final String subject, final Schema schema) throws RestClientException {
+        return findVersion(subject, schema).getKey();
+    }
+
+    @Override
+    public int getId(final String subject, final Schema schema) throws RestClientException {
+        return findVersion(subject, schema).getValue();
+    }
+
+    @Override
+    public String getMode() {
+        return READ_ONLY_MODE;
+    }
+
+    @Override
+    public String getMode(final String subject) {
+        return READ_ONLY_MODE;
+    }
+
+    @Override
+    public int register(final String subject, final Schema schema) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public int register(final String subject, final Schema schema, final int version, final int id) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public String updateCompatibility(final String subject, final String compatibility) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public String setMode(final String mode) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public String setMode(final String mode, final String subject) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Integer> deleteSubject(final String subject) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Integer> deleteSubject(final Map<String, String> requestProperties, final String subject) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public Integer deleteSchemaVersion(final String subject, final String version) throws RestClientException {
+        throw readOnly();
+    }
+
+    @Override
+    public Integer deleteSchemaVersion(final Map<String, String> requestProperties, final String subject, final String version) throws RestClientException {
+        throw readOnly();
+    }
+
+    private Map.Entry<Integer, Integer> findVersion(final String subject, final Schema schema) throws RestClientException {
+        for (final Map.Entry<Integer, Integer> entry : subject(subject).getSchemaIdsByVersion().entrySet()) {
+            if (getById(entry.getValue()).equals(schema)) {
+                return entry;
+            }
+        }
+        throw new RestClientException("Schema not found", HTTP_NOT_FOUND, SCHEMA_NOT_FOUND_ERROR_CODE);
+    }
+
+    private static RestClientException readOnly() {
+        return new RestClientException("Registry snapshot is read-only", HTTP_UNPROCESSABLE_ENTITY, OPERATION_NOT_PERMITTED_ERROR_CODE);
+    }
+
+    private RegistrySnapshot.Subject subject(final String subject) throws RestClientException {
+        final RegistrySnapshot.Subject snapshotSubject = snapshot.getSubjects().get(subject);
+        if (snapshotSubject == null) {
+            throw new RestClientException("Subject not found.", HTTP_NOT_FOUND, SUBJECT_NOT_FOUND_ERROR_CODE);
+        }
+        return snapshotSubject;
+    }
+
+    private String schemaString(final int id) throws RestClientException {
+        final String schemaString = snapshot.getSchemas().get(id);
+        if (schemaString == null) {
+            throw new RestClientException("Schema not found", HTTP_NOT_FOUND, SCHEMA_NOT_FOUND_ERROR_CODE);
+        }
+        return schemaString;
+    }
+}
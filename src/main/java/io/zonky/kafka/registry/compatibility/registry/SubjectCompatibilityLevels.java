@@ -0,0 +1,59 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.LazySupplier;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Resolves compatibility levels of remote schema registry subjects. Subjects without their own compatibility level
+ * configured fall back to global compatibility level, which is fetched at most once.
+ */
+public class SubjectCompatibilityLevels {
+
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private final AtomicReference<Supplier<String>> globalCompatibilityLevel = new AtomicReference<>();
+
+    /**
+     * Fetches compatibility level of given subject.
+     *
+     * @param registrySubjectName remote schema registry subject name
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    public String get(final String registrySubjectName, final RegistryInvoker registryInvoker) {
+        try {
+            final String compatibilityLevel = fetch(registrySubjectName, registryInvoker);
+            return compatibilityLevel != null ? compatibilityLevel : getGlobal(registryInvoker);
+        } catch (RestClientException e) {
+            if (e.getStatus() == HTTP_NOT_FOUND) {
+                return getGlobal(registryInvoker);
+            }
+            throw new SchemaCompatibilityCheckException(String.format("Unable to fetch compatibility level of subject %s", registrySubjectName), e);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Unable to fetch compatibility level of subject %s", registrySubjectName), e);
+        }
+    }
+
+    private String getGlobal(final RegistryInvoker registryInvoker) {
+        globalCompatibilityLevel.compareAndSet(null, new LazySupplier<>(() -> {
+            try {
+                return fetch(null, registryInvoker);
+            } catch (IOException | RestClientException e) {
+                throw new SchemaCompatibilityCheckException("Unable to fetch global compatibility level", e);
+            }
+        }));
+        return globalCompatibilityLevel.get().get();
+    }
+
+    /**
+     * @param registrySubjectName remote schema registry subject name, or null for global compatibility level
+     * @param registryInvoker     invoker performing schema registry calls
+     */
+    private static String fetch(final String registrySubjectName, final RegistryInvoker registryInvoker) throws IOException, RestClientException {
+        return registryInvoker.invoke(RegistryEndpoint.CONFIG, client -> client.getCompatibility(registrySubjectName));
+    }
+}
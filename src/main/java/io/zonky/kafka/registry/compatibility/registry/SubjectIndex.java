@@ -0,0 +1,79 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable index of remote schema registry subject names by full name of the schema type they hold.
+ * <p>
+ * Index is built once per execution, afterwards the subjects matching a local schema type can be looked up in constant time.
+ */
+public class SubjectIndex {
+
+    /**
+     * Name of the regex group that must be defined in subject name pattern.
+     */
+    public static final String SCHEMA_TYPE_FULL_NAME_GROUP = "schematypefullname";
+
+    private final Map<String, List<String>> subjectNamesBySchemaTypeFullName;
+    private final List<String> unmatchedSubjectNames;
+    private final int subjectCount;
+
+    private SubjectIndex(final Map<String, List<String>> subjectNamesBySchemaTypeFullName, final List<String> unmatchedSubjectNames, final int subjectCount) {
+        this.subjectNamesBySchemaTypeFullName = subjectNamesBySchemaTypeFullName;
+        this.unmatchedSubjectNames = unmatchedSubjectNames;
+        this.subjectCount = subjectCount;
+    }
+
+    /**
+     * Builds the index by extracting full schema type name from every subject name.
+     *
+     * @param subjectNames                  all remote schema registry subject names
+     * @param subjectPartsExtractionPattern regex that should contain "schematypefullname" named group
+     */
+    public static SubjectIndex build(final Collection<String> subjectNames, final Pattern subjectPartsExtractionPattern) {
+        final Map<String, List<String>> subjectNamesBySchemaTypeFullName = new HashMap<>();
+        final List<String> unmatchedSubjectNames = new ArrayList<>();
+        final Matcher matcher = subjectPartsExtractionPattern.matcher("");
+
+        for (final String subjectName : subjectNames) {
+            matcher.reset(subjectName);
+            if (matcher.find()) {
+                subjectNamesBySchemaTypeFullName.computeIfAbsent(matcher.group(SCHEMA_TYPE_FULL_NAME_GROUP), k -> new ArrayList<>()).add(subjectName);
+            } else {
+                unmatchedSubjectNames.add(subjectName);
+            }
+        }
+        subjectNamesBySchemaTypeFullName.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        return new SubjectIndex(subjectNamesBySchemaTypeFullName, Collections.unmodifiableList(unmatchedSubjectNames), subjectNames.size());
+    }
+
+    /**
+     * Returns names of subjects holding given schema type, or an empty list if there are none.
+     *
+     * @param schemaTypeFullName full name (namespace+name) of schema type
+     */
+    public List<String> getSubjectNames(final String schemaTypeFullName) {
+        return subjectNamesBySchemaTypeFullName.getOrDefault(schemaTypeFullName, Collections.emptyList());
+    }
+
+    /**
+     * Returns names of subjects that full schema type name could not be extracted from.
+     */
+    public List<String> getUnmatchedSubjectNames() {
+        return unmatchedSubjectNames;
+    }
+
+    /**
+     * Returns number of all indexed subjects, including the unmatched ones.
+     */
+    public int getSubjectCount() {
+        return subjectCount;
+    }
+}
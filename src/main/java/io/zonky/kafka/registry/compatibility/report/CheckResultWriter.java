@@ -0,0 +1,23 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+
+/**
+ * Writes results of compatibility checks into a report as soon as they are known, so the results don't have to be kept
+ * in memory until the end of execution.
+ */
+public interface CheckResultWriter extends AutoCloseable {
+
+    /**
+     * Writes result of single compatibility check.
+     *
+     * @param result result of the check
+     */
+    void write(CompatibilityCheckResult result);
+
+    /**
+     * Finishes the report and releases its resources.
+     */
+    @Override
+    void close();
+}
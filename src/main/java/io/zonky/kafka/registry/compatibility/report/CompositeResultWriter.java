@@ -0,0 +1,38 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes results into several reports at once.
+ */
+public class CompositeResultWriter implements CheckResultWriter {
+
+    private final List<CheckResultWriter> writers;
+
+    public CompositeResultWriter(final List<CheckResultWriter> writers) {
+        this.writers = new ArrayList<>(writers);
+    }
+
+    @Override
+    public void write(final CompatibilityCheckResult result) {
+        writers.forEach(writer -> writer.write(result));
+    }
+
+    @Override
+    public void close() {
+        RuntimeException exception = null;
+        for (final CheckResultWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (RuntimeException e) {
+                exception = exception == null ? e : exception;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes results of compatibility checks as JUnit XML test suite, understood by most CI servers. Every check is a test case
+ * named by the subject within a class named by the schema type, incompatible checks are failures and failed checks are errors.
+ * <p>
+ * Test cases are streamed into a temporary file as soon as the checks complete, the suite with its totals is assembled when
+ * the writer is closed.
+ */
+public class JUnitXmlResultWriter implements CheckResultWriter {
+
+    private static final String SUITE_NAME = "schema-registry-compatibility";
+
+    private final File file;
+    private final Path testCasesFile;
+    private final Writer testCases;
+    private int tests;
+    private int failures;
+    private int errors;
+    private long totalNanos;
+
+    /**
+     * @param file report file, replaced if it exists
+     */
+    public JUnitXmlResultWriter(final File file) {
+        this.file = file;
+        try {
+            this.testCasesFile = FileUtils.createTempSibling(file);
+            this.testCases = Files.newBufferedWriter(testCasesFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to create report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(final CompatibilityCheckResult result) {
+        tests++;
+        totalNanos += result.getLatencyNanos();
+        final StringBuilder testCase = new StringBuilder()
+                .append("  <testcase classname=\"").append(escape(result.getSchemaTypeFullName()))
+                .append("\" name=\"").append(escape(result.getRegistrySubjectName()))
+                .append("\" time=\"").append(seconds(result.getLatencyNanos())).append("\">\n");
+        if (result.isFailed()) {
+            errors++;
+            testCase.append("    <error message=\"").append(escape(result.getFailure())).append("\" type=\"CompatibilityCheckError\"/>\n");
+        } else if (!result.isCompatible()) {
+            failures++;
+            testCase.append("    <failure message=\"").append(escape(String.format("schema type '%s' is not compatible with schema registry subject '%s'",
+                    result.getSchemaTypeFullName(), result.getRegistrySubjectName()))).append("\" type=\"IncompatibleSchema\"/>\n");
+        }
+        testCase.append("    <system-out>").append(escape("file: " + result.getSchemaFilePath()
+                + (result.getRemoteVersion() == null ? "" : ", remote version: " + result.getRemoteVersion()))).append("</system-out>\n");
+        testCase.append("  </testcase>\n");
+        try {
+            testCases.write(testCase.toString());
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            testCases.close();
+            FileUtils.writeAtomically(file, tempFile -> {
+                try (OutputStream output = Files.newOutputStream(tempFile)) {
+                    output.write(String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"%s\" tests=\"%s\" failures=\"%s\" errors=\"%s\" skipped=\"0\" time=\"%s\">\n",
+                            SUITE_NAME, tests, failures, errors, seconds(totalNanos)).getBytes(StandardCharsets.UTF_8));
+                    Files.copy(testCasesFile, output);
+                    output.write("</testsuite>\n".getBytes(StandardCharsets.UTF_8));
+                }
+            });
+            Files.delete(testCasesFile);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e);
+        }
+    }
+
+    private static String seconds(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000d);
+    }
+
+    private static String escape(final String value) {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (final char c : value.toCharArray()) {
+            switch (c) {
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                case '\n':
+                    escaped.append("&#10;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\t') {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+}
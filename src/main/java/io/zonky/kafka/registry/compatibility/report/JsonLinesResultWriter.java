@@ -0,0 +1,67 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import com.google.gson.JsonObject;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes results of compatibility checks as JSON Lines - one json object per check, appended to the report and flushed as soon
+ * as the check completes, so the report may be followed while the checks are running. An interrupted build leaves the results
+ * of all the completed checks in the report.
+ */
+public class JsonLinesResultWriter implements CheckResultWriter {
+
+    private final File file;
+    private final Writer writer;
+
+    /**
+     * @param file report file, truncated if it exists
+     */
+    public JsonLinesResultWriter(final File file) {
+        this.file = file;
+        try {
+            Files.createDirectories(file.getAbsoluteFile().toPath().getParent());
+            this.writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to create report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(final CompatibilityCheckResult result) {
+        final JsonObject line = new JsonObject();
+        line.addProperty("file", result.getSchemaFilePath());
+        line.addProperty("schemaType", result.getSchemaTypeFullName());
+        line.addProperty("subject", result.getRegistrySubjectName());
+        line.addProperty("result", result.isFailed() ? "ERROR" : result.isCompatible() ? "COMPATIBLE" : "INCOMPATIBLE");
+        if (result.isFailed()) {
+            line.addProperty("failure", result.getFailure());
+        }
+        if (result.getRemoteVersion() != null) {
+            line.addProperty("remoteVersion", result.getRemoteVersion());
+        }
+        line.addProperty("latencyMillis", result.getLatencyNanos() / 1_000_000d);
+        try {
+            writer.write(line.toString());
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import java.io.File;
+
+/**
+ * Formats of machine-readable reports of compatibility check results.
+ */
+public enum ReportFormat {
+
+    /**
+     * One json object per check, see {@link JsonLinesResultWriter}.
+     */
+    JSON_LINES("schema-compatibility.jsonl"),
+
+    /**
+     * JUnit XML test suite with one test case per check, see {@link JUnitXmlResultWriter}.
+     */
+    JUNIT("TEST-schema-compatibility.xml"),
+
+    /**
+     * SARIF log with one result per incompatible or failed check, see {@link SarifResultWriter}.
+     */
+    SARIF("schema-compatibility.sarif");
+
+    private final String fileName;
+
+    ReportFormat(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Creates writer of report in this format.
+     *
+     * @param reportDirectory directory the report is written to
+     * @param baseDirectory   directory the schema file paths are reported relative to
+     */
+    public CheckResultWriter newWriter(final File reportDirectory, final File baseDirectory) {
+        final File file = new File(reportDirectory, fileName);
+        switch (this) {
+            case JSON_LINES:
+                return new JsonLinesResultWriter(file);
+            case JUNIT:
+                return new JUnitXmlResultWriter(file);
+            case SARIF:
+                return new SarifResultWriter(file, baseDirectory);
+            default:
+                throw new IllegalStateException("Unsupported report format " + this);
+        }
+    }
+}
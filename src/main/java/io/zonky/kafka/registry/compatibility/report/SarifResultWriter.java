@@ -0,0 +1,148 @@
+package io.zonky.kafka.registry.compatibility.report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes incompatible and failed compatibility checks as SARIF 2.1.0 log, which code scanning tools show as annotations of
+ * the schema files. Results are streamed into a temporary file as soon as the checks complete, the file is moved in place of
+ * the report when the writer is closed.
+ */
+public class SarifResultWriter implements CheckResultWriter {
+
+    private static final String INCOMPATIBLE_RULE = "incompatible-schema";
+    private static final String ERROR_RULE = "compatibility-check-error";
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final File file;
+    private final Path baseDirectory;
+    private final Path tempFile;
+    private final JsonWriter writer;
+
+    /**
+     * @param file          report file, replaced if it exists
+     * @param baseDirectory directory the schema file paths are reported relative to
+     */
+    public SarifResultWriter(final File file, final File baseDirectory) {
+        this.file = file;
+        this.baseDirectory = baseDirectory.getAbsoluteFile().toPath().normalize();
+        try {
+            this.tempFile = FileUtils.createTempSibling(file);
+            this.writer = new JsonWriter(Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8));
+            writer.beginObject();
+            writer.name("$schema").value("https://json.schemastore.org/sarif-2.1.0.json");
+            writer.name("version").value("2.1.0");
+            writer.name("runs").beginArray().beginObject();
+            writer.name("tool");
+            GSON.toJson(tool(), writer);
+            // results are streamed into the results array of the only run, which is closed by close()
+            writer.name("results").beginArray();
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to create report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(final CompatibilityCheckResult result) {
+        if (!result.isFailed() && result.isCompatible()) {
+            return;
+        }
+        try {
+            GSON.toJson(toSarifResult(result), writer);
+        } catch (JsonIOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e.getCause());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.endArray().endObject().endArray().endObject();
+            writer.close();
+            FileUtils.replace(tempFile, file);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Unable to write report " + file, e);
+        }
+    }
+
+    private JsonObject toSarifResult(final CompatibilityCheckResult result) {
+        final JsonObject message = new JsonObject();
+        message.addProperty("text", result.isFailed()
+                ? String.format("Compatibility check of schema type '%s' against schema registry subject '%s' failed: %s",
+                result.getSchemaTypeFullName(), result.getRegistrySubjectName(), result.getFailure())
+                : String.format("Schema type '%s' is not compatible with schema registry subject '%s'",
+                result.getSchemaTypeFullName(), result.getRegistrySubjectName()));
+
+        final JsonObject artifactLocation = new JsonObject();
+        artifactLocation.addProperty("uri", uri(result.getSchemaFilePath()));
+        final JsonObject physicalLocation = new JsonObject();
+        physicalLocation.add("artifactLocation", artifactLocation);
+        final JsonObject location = new JsonObject();
+        location.add("physicalLocation", physicalLocation);
+        final JsonArray locations = new JsonArray();
+        locations.add(location);
+
+        final JsonObject properties = new JsonObject();
+        properties.addProperty("subject", result.getRegistrySubjectName());
+        properties.addProperty("schemaType", result.getSchemaTypeFullName());
+        if (result.getRemoteVersion() != null) {
+            properties.addProperty("remoteVersion", result.getRemoteVersion());
+        }
+        properties.addProperty("latencyMillis", result.getLatencyNanos() / 1_000_000d);
+
+        final JsonObject sarifResult = new JsonObject();
+        sarifResult.addProperty("ruleId", result.isFailed() ? ERROR_RULE : INCOMPATIBLE_RULE);
+        sarifResult.addProperty("level", result.isFailed() ? "warning" : "error");
+        sarifResult.add("message", message);
+        sarifResult.add("locations", locations);
+        sarifResult.add("properties", properties);
+        return sarifResult;
+    }
+
+    /**
+     * Returns URI of the schema file relative to the base directory, or absolute <code>file:</code> URI of files outside of it.
+     */
+    private String uri(final String schemaFilePath) {
+        final Path path = new File(schemaFilePath).getAbsoluteFile().toPath().normalize();
+        if (!path.startsWith(baseDirectory)) {
+            return path.toUri().toString();
+        }
+        // relative reference, every segment is percent-encoded the same way as by the file URI
+        return baseDirectory.toUri().relativize(path.toUri()).toString();
+    }
+
+    private static JsonObject tool() {
+        final JsonArray rules = new JsonArray();
+        rules.add(rule(INCOMPATIBLE_RULE, "Local schema is not compatible with schema registry subject"));
+        rules.add(rule(ERROR_RULE, "Compatibility check against schema registry subject failed with an error"));
+
+        final JsonObject driver = new JsonObject();
+        driver.addProperty("name", "kafka-schema-registry-compatibility-plugin");
+        driver.add("rules", rules);
+        final JsonObject tool = new JsonObject();
+        tool.add("driver", driver);
+        return tool;
+    }
+
+    private static JsonObject rule(final String id, final String description) {
+        final JsonObject shortDescription = new JsonObject();
+        shortDescription.addProperty("text", description);
+        final JsonObject rule = new JsonObject();
+        rule.addProperty("id", id);
+        rule.add("shortDescription", shortDescription);
+        return rule;
+    }
+}
@@ -0,0 +1,64 @@
+package io.zonky.kafka.registry.compatibility.schema;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormats;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects schema files affected by a change - files which changed themselves and files which transitively depend on a changed
+ * import.
+ */
+public final class AffectedSchemaFiles {
+
+    private AffectedSchemaFiles() {
+    }
+
+    /**
+     * Returns schema files affected by given changed files, in their original order.
+     *
+     * @param schemaFiles    candidate schema files
+     * @param changedFiles   canonical changed files, may contain any other files as well
+     * @param importRegistry registry of imports the schema files may depend on
+     * @param schemaFormats  available schema formats, only files in formats supporting imports may depend on imports
+     */
+    public static List<File> select(final List<File> schemaFiles, final Set<File> changedFiles, final ImportRegistry importRegistry,
+                                    final SchemaFormats schemaFormats) {
+        final Set<File> affectedImports = importRegistry.getDependents(changedFiles);
+        final Set<String> affectedTypeNames = new HashSet<>();
+        affectedImports.forEach(importFile -> affectedTypeNames.addAll(importRegistry.getDefinedTypeNames(importFile)));
+
+        final List<File> affectedFiles = new ArrayList<>();
+        for (final File schemaFile : schemaFiles) {
+            final File canonicalFile = FileUtils.canonical(schemaFile);
+            if (changedFiles.contains(canonicalFile) || affectedImports.contains(canonicalFile)
+                    || (!affectedTypeNames.isEmpty() && supportsImports(schemaFile, schemaFormats) && references(schemaFile, affectedTypeNames))) {
+                affectedFiles.add(schemaFile);
+            }
+        }
+        return affectedFiles;
+    }
+
+    private static boolean supportsImports(final File schemaFile, final SchemaFormats schemaFormats) {
+        return schemaFormats.find(schemaFile).map(SchemaFormat::supportsImports).orElse(false);
+    }
+
+    private static boolean references(final File schemaFile, final Set<String> typeNames) {
+        try {
+            return !Collections.disjoint(SchemaReferences.scan(SchemaFileLoader.read(schemaFile)).getReferencedTypeNames(), typeNames);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Exception thrown while loading " + schemaFile, e);
+        } catch (SchemaCompatibilityCheckException e) {
+            // unreadable schema is reported when the file is loaded
+            return true;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package io.zonky.kafka.registry.compatibility.schema;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.util.FileUtils;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable registry of types defined in schema files configured as imports.
+ * <p>
+ * Every import is read and parsed exactly once. Imports are parsed in dependency order, which is resolved automatically from
+ * the named types each import defines and references. Fresh parsers with all imported types already defined are then created
+ * via {@link #newParser()} without parsing anything again.
+ */
+public class ImportRegistry {
+
+    private static final ImportRegistry EMPTY = new ImportRegistry(Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap());
+
+    private final List<File> importFiles;
+    private final Map<File, Schema> schemasByFile;
+    private final Map<File, Set<File>> dependenciesByFile;
+    private final Map<File, Set<String>> definedTypeNamesByFile;
+    private final Map<String, Schema> types;
+
+    private ImportRegistry(final List<File> importFiles, final Map<File, Schema> schemasByFile, final Map<File, Set<File>> dependenciesByFile,
+                           final Map<File, Set<String>> definedTypeNamesByFile, final Map<String, Schema> types) {
+        this.importFiles = importFiles;
+        this.schemasByFile = schemasByFile;
+        this.dependenciesByFile = dependenciesByFile;
+        this.definedTypeNamesByFile = definedTypeNamesByFile;
+        this.types = types;
+    }
+
+    /**
+     * Returns registry without any imported types.
+     */
+    public static ImportRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Reads and parses all the import files in dependency order.
+     *
+     * @param files schema files which should be treated as dependencies ("imports"), in any order
+     */
+    public static ImportRegistry load(final List<File> files) {
+        if (files.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Map<File, String> definitionsByFile = new LinkedHashMap<>();
+        final Map<File, SchemaReferences> referencesByFile = new HashMap<>();
+        final Map<String, File> filesByDefinedTypeName = new HashMap<>();
+        for (final File file : files) {
+            final File canonicalFile = FileUtils.canonical(file);
+            final String definition = read(canonicalFile);
+            final SchemaReferences references;
+            try {
+                references = SchemaReferences.scan(definition);
+            } catch (SchemaCompatibilityCheckException e) {
+                throw new SchemaCompatibilityCheckException(String.format("Unable to parse dependency %s", file), e.getCause());
+            }
+            definitionsByFile.put(canonicalFile, definition);
+            referencesByFile.put(canonicalFile, references);
+            references.getDefinedTypeNames().forEach(typeName -> filesByDefinedTypeName.putIfAbsent(typeName, canonicalFile));
+        }
+
+        final Map<File, Set<File>> dependenciesByFile = new LinkedHashMap<>();
+        final Map<File, Set<String>> definedTypeNamesByFile = new HashMap<>();
+        for (final File file : definitionsByFile.keySet()) {
+            final Set<File> dependencies = referencesByFile.get(file).getReferencedTypeNames().stream()
+                    .map(filesByDefinedTypeName::get)
+                    .filter(dependency -> dependency != null && !dependency.equals(file))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            dependenciesByFile.put(file, Collections.unmodifiableSet(dependencies));
+            definedTypeNamesByFile.put(file, referencesByFile.get(file).getDefinedTypeNames());
+        }
+
+        final List<File> orderedFiles = sortByDependencies(dependenciesByFile);
+        final Schema.Parser parser = new Schema.Parser();
+        final Map<File, Schema> schemasByFile = new HashMap<>();
+        for (final File file : orderedFiles) {
+            try {
+                schemasByFile.put(file, parser.parse(definitionsByFile.get(file)));
+            } catch (SchemaParseException e) {
+                throw new SchemaCompatibilityCheckException(String.format("Unable to parse dependency %s", file), e);
+            }
+        }
+
+        return new ImportRegistry(
+                Collections.unmodifiableList(orderedFiles),
+                Collections.unmodifiableMap(schemasByFile),
+                Collections.unmodifiableMap(dependenciesByFile),
+                Collections.unmodifiableMap(definedTypeNamesByFile),
+                Collections.unmodifiableMap(parser.getTypes())
+        );
+    }
+
+    /**
+     * Creates a new parser, which already has all the imported types defined.
+     */
+    public Schema.Parser newParser() {
+        final Schema.Parser parser = new Schema.Parser();
+        if (!types.isEmpty()) {
+            parser.addTypes(types);
+        }
+        return parser;
+    }
+
+    /**
+     * Returns import files in the order they were parsed (every file follows all the files it depends on).
+     */
+    public List<File> getImportFiles() {
+        return importFiles;
+    }
+
+    /**
+     * Returns schema defined in given file, if the file is one of the imports.
+     *
+     * @param file any schema file
+     */
+    public Optional<Schema> getImportedSchema(final File file) {
+        return Optional.ofNullable(schemasByFile.get(FileUtils.canonical(file)));
+    }
+
+    /**
+     * Returns import files given import file directly depends on.
+     *
+     * @param importFile one of the import files
+     */
+    public Set<File> getDependencies(final File importFile) {
+        return dependenciesByFile.getOrDefault(FileUtils.canonical(importFile), Collections.emptySet());
+    }
+
+    /**
+     * Returns given import files together with all the import files transitively depending on any of them.
+     *
+     * @param importFiles import files
+     */
+    public Set<File> getDependents(final Collection<File> importFiles) {
+        final Set<File> dependents = new LinkedHashSet<>();
+        importFiles.stream().map(FileUtils::canonical).filter(dependenciesByFile::containsKey).forEach(dependents::add);
+        // files are ordered by dependencies, so a single pass finds all the transitive dependents
+        for (final File file : this.importFiles) {
+            if (!Collections.disjoint(dependenciesByFile.get(file), dependents)) {
+                dependents.add(file);
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Returns full names of the types defined in given import file.
+     *
+     * @param importFile one of the import files
+     */
+    public Set<String> getDefinedTypeNames(final File importFile) {
+        return definedTypeNamesByFile.getOrDefault(FileUtils.canonical(importFile), Collections.emptySet());
+    }
+
+    /**
+     * Returns all the imported types by their full names.
+     */
+    public Map<String, Schema> getTypes() {
+        return types;
+    }
+
+    private static List<File> sortByDependencies(final Map<File, Set<File>> dependenciesByFile) {
+        final List<File> orderedFiles = new ArrayList<>(dependenciesByFile.size());
+        final Set<File> resolvedFiles = new LinkedHashSet<>();
+        final Set<File> remainingFiles = new LinkedHashSet<>(dependenciesByFile.keySet());
+
+        while (!remainingFiles.isEmpty()) {
+            final File nextFile = remainingFiles.stream()
+                    .filter(file -> resolvedFiles.containsAll(dependenciesByFile.get(file)))
+                    .findFirst()
+                    .orElseThrow(() -> new SchemaCompatibilityCheckException(String.format(
+                            "Unable to resolve order of imports, there is a cyclic dependency between: %s", remainingFiles), null));
+            orderedFiles.add(nextFile);
+            resolvedFiles.add(nextFile);
+            remainingFiles.remove(nextFile);
+        }
+        return orderedFiles;
+    }
+
+    private static String read(final File file) {
+        try {
+            return SchemaFileLoader.read(file);
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException(String.format("Unable to parse dependency %s", file), e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.zonky.kafka.registry.compatibility.schema;
+
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.SchemaFormats;
+import org.apache.avro.Schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+/**
+ * Loads local schema files. Every file is read into memory once and parsed once by the format selected by extension of the
+ * file, full name of the schema type is taken from the parsed schema.
+ */
+public class SchemaFileLoader {
+
+    private final ImportRegistry importRegistry;
+    private final SchemaFormats schemaFormats;
+
+    /**
+     * @param importRegistry registry of imported types, which the loaded schemas may reference
+     */
+    public SchemaFileLoader(final ImportRegistry importRegistry) {
+        this(importRegistry, SchemaFormats.load());
+    }
+
+    /**
+     * @param importRegistry registry of imported types, which the loaded schemas may reference
+     * @param schemaFormats  available schema formats
+     */
+    public SchemaFileLoader(final ImportRegistry importRegistry, final SchemaFormats schemaFormats) {
+        this.importRegistry = importRegistry;
+        this.schemaFormats = schemaFormats;
+    }
+
+    /**
+     * Loads schema from given file and constructs a SchemaFileCheckingContext object holding it. Files, which are also
+     * configured as imports, are not parsed again.
+     *
+     * @param schemaFile single schema file in any supported format
+     */
+    public SchemaFileCheckingContext load(final File schemaFile) {
+        final SchemaFormat schemaFormat = schemaFormats.get(schemaFile);
+        if (schemaFormat.supportsImports()) {
+            final Optional<Schema> importedSchema = importRegistry.getImportedSchema(schemaFile);
+            if (importedSchema.isPresent()) {
+                return new SchemaFileCheckingContext(schemaFile, new AvroLocalSchema(schemaFormat, importedSchema.get()));
+            }
+        }
+
+        try {
+            return new SchemaFileCheckingContext(schemaFile, schemaFormat.parse(schemaFile, read(schemaFile), importRegistry));
+        } catch (IOException e) {
+            throw new SchemaCompatibilityCheckException("Exception thrown while loading " + schemaFile, e);
+        }
+    }
+
+    /**
+     * Reads whole schema file into memory.
+     *
+     * @param schemaFile schema file
+     */
+    static String read(final File schemaFile) throws IOException {
+        return new String(Files.readAllBytes(schemaFile.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,119 @@
+package io.zonky.kafka.registry.compatibility.schema;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Named types defined and referenced by a single avro schema definition (json).
+ * <p>
+ * Used to resolve dependencies between schema files without parsing them by avro parser.
+ */
+public class SchemaReferences {
+
+    private static final Set<String> PRIMITIVE_TYPES = new HashSet<>(Arrays.asList("null", "boolean", "int", "long", "float", "double", "bytes", "string"));
+    private static final Set<String> NAMED_TYPES = new HashSet<>(Arrays.asList("record", "error", "enum", "fixed"));
+
+    private final Set<String> definedTypeNames = new LinkedHashSet<>();
+    private final Set<String> referencedTypeNames = new LinkedHashSet<>();
+
+    private SchemaReferences() {
+    }
+
+    /**
+     * Scans avro schema definition and collects full names of all named types it defines and references.
+     *
+     * @param schemaDefinition avro schema definition (json)
+     */
+    public static SchemaReferences scan(final String schemaDefinition) {
+        final SchemaReferences references = new SchemaReferences();
+        try {
+            references.scan(JsonParser.parseString(schemaDefinition), null);
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new SchemaCompatibilityCheckException("Unable to read schema definition", e);
+        }
+        references.referencedTypeNames.removeAll(references.definedTypeNames);
+        return references;
+    }
+
+    /**
+     * Returns full names of all named types (records, enums, fixed) defined in schema, including nested ones.
+     */
+    public Set<String> getDefinedTypeNames() {
+        return Collections.unmodifiableSet(definedTypeNames);
+    }
+
+    /**
+     * Returns full names of named types, that are used but not defined in schema.
+     */
+    public Set<String> getReferencedTypeNames() {
+        return Collections.unmodifiableSet(referencedTypeNames);
+    }
+
+    private void scan(final JsonElement schema, final String namespace) {
+        if (schema == null) {
+            return;
+        }
+        if (schema.isJsonPrimitive()) {
+            final String typeName = schema.getAsString();
+            if (!PRIMITIVE_TYPES.contains(typeName)) {
+                referencedTypeNames.add(fullName(typeName, namespace));
+            }
+        } else if (schema.isJsonArray()) {
+            schema.getAsJsonArray().forEach(unionMember -> scan(unionMember, namespace));
+        } else if (schema.isJsonObject()) {
+            scanObject(schema.getAsJsonObject(), namespace);
+        }
+    }
+
+    private void scanObject(final JsonObject schema, final String namespace) {
+        final JsonElement type = schema.get("type");
+        if (type == null) {
+            return;
+        }
+        if (!type.isJsonPrimitive()) {
+            scan(type, namespace);
+            return;
+        }
+
+        final String typeName = type.getAsString();
+        if (NAMED_TYPES.contains(typeName)) {
+            final String fullName = fullName(schema.getAsJsonPrimitive("name").getAsString(), namespaceOf(schema, namespace));
+            definedTypeNames.add(fullName);
+            final int lastDot = fullName.lastIndexOf('.');
+            final String typeNamespace = lastDot < 0 ? null : fullName.substring(0, lastDot);
+
+            final JsonArray fields = schema.getAsJsonArray("fields");
+            if (fields != null) {
+                fields.forEach(field -> scan(field.getAsJsonObject().get("type"), typeNamespace));
+            }
+        } else if ("array".equals(typeName)) {
+            scan(schema.get("items"), namespace);
+        } else if ("map".equals(typeName)) {
+            scan(schema.get("values"), namespace);
+        } else {
+            scan(type, namespace);
+        }
+    }
+
+    private static String namespaceOf(final JsonObject schema, final String enclosingNamespace) {
+        final JsonElement namespace = schema.get("namespace");
+        return namespace != null && namespace.isJsonPrimitive() ? namespace.getAsString() : enclosingNamespace;
+    }
+
+    private static String fullName(final String name, final String namespace) {
+        if (name.contains(".") || namespace == null || namespace.isEmpty()) {
+            return name;
+        }
+        return namespace + "." + name;
+    }
+}
@@ -0,0 +1,103 @@
+package io.zonky.kafka.registry.compatibility.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * File handling shared by the plugin - canonical paths of schema files and atomic replacement of the files the plugin writes.
+ */
+public final class FileUtils {
+
+    private FileUtils() {
+    }
+
+    /**
+     * Returns canonical form of given file, or its absolute form if the canonical one can't be resolved.
+     *
+     * @param file file to be canonicalized
+     */
+    public static File canonical(final File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    /**
+     * Reads the stream fully as UTF-8 text and closes it. Null stream is read as an empty text.
+     *
+     * @param inputStream stream to be read, or null
+     */
+    public static String readFully(final InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return "";
+        }
+        try (InputStream stream = inputStream) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates an empty temporary file in directory of given file (creating the directory if needed), so that the temporary
+     * file can be moved in place of the given one by {@link #replace(Path, File)}.
+     *
+     * @param file file the temporary file will replace
+     */
+    public static Path createTempSibling(final File file) throws IOException {
+        final Path directory = file.getAbsoluteFile().toPath().getParent();
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, file.getName(), ".tmp");
+    }
+
+    /**
+     * Atomically moves temporary file created by {@link #createTempSibling(File)} in place of given file.
+     *
+     * @param tempFile temporary file
+     * @param file     file to be replaced
+     */
+    public static void replace(final Path tempFile, final File file) throws IOException {
+        Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes given file atomically - the content is written into a temporary file first, which is then moved in place of
+     * the file, so an existing file is never left partially written.
+     *
+     * @param file          file to be written
+     * @param contentWriter writer of the content into the temporary file
+     */
+    public static void writeAtomically(final File file, final ContentWriter contentWriter) throws IOException {
+        final Path tempFile = createTempSibling(file);
+        try {
+            contentWriter.write(tempFile);
+            replace(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Writer of content of a file.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        /**
+         * @param file file the content is written to
+         */
+        void write(Path file) throws IOException;
+    }
+}
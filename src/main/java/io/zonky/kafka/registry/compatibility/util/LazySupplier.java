@@ -5,10 +5,12 @@ import java.util.function.Supplier;
 /**
  * Supplier that supplies a single value that it retrieves by calling internal supplier on the first call of get method.
  * Once internal supplier was called, LazySupplier always returns the same resolved value.
+ * <p>
+ * The supplier is thread-safe - internal supplier is called at most once even if get method is called concurrently.
  * @param <T>
  */
 public class LazySupplier<T> implements Supplier<T> {
-    private T value;
+    private volatile T value;
     private final Supplier<T> supplier;
 
     public LazySupplier(Supplier<T> supplier) {
@@ -16,9 +18,16 @@ public class LazySupplier<T> implements Supplier<T> {
     }
 
     public T get() {
-        if (value == null) {
-            value = supplier.get();
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                }
+            }
         }
-        return value;
+        return result;
     }
 }
@@ -0,0 +1,154 @@
+package io.zonky.kafka.registry.compatibility.cache;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityVerdict;
+import io.zonky.kafka.registry.compatibility.check.RemoteCompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import io.zonky.kafka.registry.compatibility.registry.InMemorySchemaRegistry;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import org.apache.avro.Schema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachingCompatibilityCheckerTest {
+
+    private static final String SUBJECT = "payment-value";
+    private static final String VERSION_1 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String VERSION_2 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0}]}";
+    private static final String VERSION_2_CHANGED_DEFAULT = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":100}]}";
+    private static final String INCOMPATIBLE = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"string\"}]}";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheFile;
+    private SchemaRegistryClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheFile = new File(temporaryFolder.getRoot(), "cache/results.json");
+        client = new InMemorySchemaRegistry("BACKWARD").subject(SUBJECT, null, VERSION_1).client(temporaryFolder.getRoot());
+    }
+
+    @Test
+    public void answersRepeatedCheckFromCache() throws Exception {
+        final CountingChecker delegate = new CountingChecker(client);
+        final CachingCompatibilityChecker checker = checker(delegate, CompatibilityResultCache.load(cacheFile, "registry"));
+
+        assertTrue(checker.check(SUBJECT, schema(VERSION_2)).isCompatible());
+        assertFalse(checker.check(SUBJECT, schema(INCOMPATIBLE)).isCompatible());
+        assertTrue(checker.check(SUBJECT, schema(VERSION_2)).isCompatible());
+        assertFalse(checker.check(SUBJECT, schema(INCOMPATIBLE)).isCompatible());
+
+        assertEquals(2, delegate.checks.get());
+    }
+
+    @Test
+    public void answersFromSavedCache() throws Exception {
+        final CompatibilityResultCache cache = CompatibilityResultCache.load(cacheFile, "registry");
+        checker(new CountingChecker(client), cache).check(SUBJECT, schema(VERSION_2));
+        cache.save();
+
+        final CountingChecker delegate = new CountingChecker(client);
+        final CompatibilityResultCache loadedCache = CompatibilityResultCache.load(cacheFile, "registry");
+        final CompatibilityVerdict verdict = checker(delegate, loadedCache).check(SUBJECT, schema(VERSION_2));
+
+        assertTrue(verdict.isCompatible());
+        assertEquals(Integer.valueOf(1), verdict.getRemoteVersion());
+        assertEquals(0, delegate.checks.get());
+        assertEquals(1, loadedCache.getHits());
+        assertEquals(0, loadedCache.getMisses());
+    }
+
+    @Test
+    public void missesWhenOnlyDefaultValueChanges() throws Exception {
+        final CountingChecker delegate = new CountingChecker(client);
+        final CompatibilityResultCache cache = CompatibilityResultCache.load(cacheFile, "registry");
+        final CachingCompatibilityChecker checker = checker(delegate, cache);
+
+        checker.check(SUBJECT, schema(VERSION_2));
+        checker.check(SUBJECT, schema(VERSION_2_CHANGED_DEFAULT));
+
+        assertEquals(2, delegate.checks.get());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void missesWhenRemoteSubjectChanges() throws Exception {
+        final CompatibilityResultCache cache = CompatibilityResultCache.load(cacheFile, "registry");
+        checker(new CountingChecker(client), cache).check(SUBJECT, schema(VERSION_2));
+
+        client = new InMemorySchemaRegistry("BACKWARD").subject(SUBJECT, null, VERSION_1, VERSION_2).client(temporaryFolder.getRoot());
+        final CountingChecker delegate = new CountingChecker(client);
+        final CompatibilityVerdict verdict = checker(delegate, cache).check(SUBJECT, schema(VERSION_2));
+
+        assertEquals(Integer.valueOf(2), verdict.getRemoteVersion());
+        assertEquals(1, delegate.checks.get());
+    }
+
+    @Test
+    public void missesWhenCompatibilityLevelChanges() throws Exception {
+        final CompatibilityResultCache cache = CompatibilityResultCache.load(cacheFile, "registry");
+        checker(new CountingChecker(client), cache).check(SUBJECT, schema(VERSION_2));
+
+        client = new InMemorySchemaRegistry("BACKWARD").subject(SUBJECT, "FORWARD", VERSION_1).client(temporaryFolder.getRoot());
+        final CountingChecker delegate = new CountingChecker(client);
+        checker(delegate, cache).check(SUBJECT, schema(VERSION_2));
+
+        assertEquals(1, delegate.checks.get());
+    }
+
+    @Test
+    public void ignoresResultsOfOtherScope() throws Exception {
+        final CompatibilityResultCache cache = CompatibilityResultCache.load(cacheFile, "registry");
+        checker(new CountingChecker(client), cache).check(SUBJECT, schema(VERSION_2));
+        cache.save();
+
+        final CountingChecker delegate = new CountingChecker(client);
+        checker(delegate, CompatibilityResultCache.load(cacheFile, "other-registry")).check(SUBJECT, schema(VERSION_2));
+
+        assertEquals(1, delegate.checks.get());
+    }
+
+    private CachingCompatibilityChecker checker(final CompatibilityChecker delegate, final CompatibilityResultCache cache) {
+        return new CachingCompatibilityChecker(delegate, new RegistryInvoker(() -> client, new CheckMetrics()), cache);
+    }
+
+    private static LocalSchema schema(final String definition) {
+        return new AvroLocalSchema(new AvroSchemaFormat(), new Schema.Parser().parse(definition));
+    }
+
+    private static class CountingChecker implements CompatibilityChecker {
+
+        private final CompatibilityChecker delegate;
+        private final AtomicInteger checks = new AtomicInteger();
+
+        private CountingChecker(final SchemaRegistryClient client) {
+            this.delegate = new RemoteCompatibilityChecker(new RegistryInvoker(() -> client, new CheckMetrics()));
+        }
+
+        @Override
+        public CompatibilityVerdict check(final String registrySubjectName, final LocalSchema schema) throws IOException, RestClientException {
+            checks.incrementAndGet();
+            return delegate.check(registrySubjectName, schema);
+        }
+    }
+}
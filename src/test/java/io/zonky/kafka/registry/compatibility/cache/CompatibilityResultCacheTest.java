@@ -0,0 +1,136 @@
+package io.zonky.kafka.registry.compatibility.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompatibilityResultCacheTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final RemoteSubjectState STATE = new RemoteSubjectState(1, 1, "BACKWARD");
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicLong clock = new AtomicLong(100 * DAY);
+    private File cacheFile;
+
+    @Before
+    public void setUp() {
+        cacheFile = new File(temporaryFolder.getRoot(), "cache/results.json");
+    }
+
+    @Test
+    public void mergesResultsOfBuildsSharingTheFile() {
+        final CompatibilityResultCache first = load(1000);
+        final CompatibilityResultCache second = load(1000);
+        first.put("payment-value", 1, STATE, true);
+        second.put("refund-value", 2, STATE, false);
+
+        first.save();
+        second.save();
+
+        final CompatibilityResultCache loaded = load(1000);
+        assertEquals(true, loaded.get("payment-value", 1, STATE).orElse(null));
+        assertEquals(false, loaded.get("refund-value", 2, STATE).orElse(null));
+    }
+
+    @Test
+    public void savedResultsReplaceResultsOfOtherBuilds() {
+        final CompatibilityResultCache first = load(1000);
+        first.put("payment-value", 1, STATE, true);
+        first.save();
+
+        final CompatibilityResultCache second = load(1000);
+        final RemoteSubjectState newState = new RemoteSubjectState(2, 2, "BACKWARD");
+        second.put("payment-value", 1, newState, false);
+        second.save();
+        // results loaded but not used by the first build don't overwrite the newer ones
+        first.put("refund-value", 2, STATE, true);
+        first.save();
+
+        final CompatibilityResultCache loaded = load(1000);
+        assertEquals(false, loaded.get("payment-value", 1, newState).orElse(null));
+        assertFalse(loaded.get("payment-value", 1, STATE).isPresent());
+    }
+
+    @Test
+    public void savesConcurrentlyWithoutLosingResults() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                final int fingerprint = i;
+                futures.add(executor.submit(() -> {
+                    final CompatibilityResultCache cache = load(1000);
+                    cache.put("payment-value", fingerprint, STATE, true);
+                    cache.save();
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final CompatibilityResultCache loaded = load(1000);
+        for (int i = 0; i < 32; i++) {
+            assertTrue(String.valueOf(i), loaded.get("payment-value", i, STATE).isPresent());
+        }
+    }
+
+    @Test
+    public void evictsResultsNotUsedForMaxAge() {
+        final CompatibilityResultCache cache = load(1000);
+        cache.put("payment-value", 1, STATE, true);
+        cache.put("refund-value", 2, STATE, true);
+        cache.save();
+
+        clock.addAndGet(20 * DAY);
+        final CompatibilityResultCache laterCache = load(1000);
+        assertTrue(laterCache.get("payment-value", 1, STATE).isPresent());
+        laterCache.save();
+
+        clock.addAndGet(20 * DAY);
+        final CompatibilityResultCache loaded = load(1000);
+        loaded.save();
+        assertTrue(load(1000).get("payment-value", 1, STATE).isPresent());
+        assertFalse(load(1000).get("refund-value", 2, STATE).isPresent());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedResultsBeyondMaxEntries() {
+        final CompatibilityResultCache cache = load(3);
+        for (int i = 0; i < 5; i++) {
+            cache.put("payment-value", i, STATE, true);
+            clock.incrementAndGet();
+        }
+        assertTrue(cache.get("payment-value", 0, STATE).isPresent());
+        cache.save();
+
+        final CompatibilityResultCache loaded = load(3);
+        assertTrue(loaded.get("payment-value", 0, STATE).isPresent());
+        assertFalse(loaded.get("payment-value", 1, STATE).isPresent());
+        assertFalse(loaded.get("payment-value", 2, STATE).isPresent());
+        assertTrue(loaded.get("payment-value", 3, STATE).isPresent());
+        assertTrue(loaded.get("payment-value", 4, STATE).isPresent());
+    }
+
+    private CompatibilityResultCache load(final int maxEntries) {
+        return CompatibilityResultCache.load(cacheFile, "registry", 30 * DAY, maxEntries, clock::get);
+    }
+}
@@ -0,0 +1,142 @@
+package io.zonky.kafka.registry.compatibility.change;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class GitChangesTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File repository;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("git executable is not available", gitAvailable());
+        repository = temporaryFolder.newFolder("repository").getCanonicalFile();
+        git("init", "-q");
+        git("config", "user.email", "test@zonky.io");
+        git("config", "user.name", "Test");
+        write("schemas/unchanged.avsc", "{}");
+        write("schemas/modified.avsc", "{}");
+        write("schemas/committed.avsc", "{}");
+        write(".gitignore", "*.ignored\n");
+        git("add", "-A");
+        git("commit", "-q", "-m", "base");
+        git("branch", "base");
+    }
+
+    @Test
+    public void detectsCommittedUncommittedAndUntrackedFiles() throws Exception {
+        write("schemas/committed.avsc", "{\"type\":\"string\"}");
+        git("commit", "-q", "-a", "-m", "change");
+        write("schemas/modified.avsc", "{\"type\":\"string\"}");
+        write("schemas/untracked.avsc", "{}");
+        write("schemas/file.ignored", "{}");
+
+        final Set<File> changes = GitChanges.detect(new File(repository, "schemas"), "base");
+
+        assertEquals(files("schemas/committed.avsc", "schemas/modified.avsc", "schemas/untracked.avsc"), changes);
+    }
+
+    @Test
+    public void detectsFilesWithSpacesInName() throws Exception {
+        write("schemas/with space.avsc", "{}");
+
+        assertEquals(files("schemas/with space.avsc"), GitChanges.detect(repository, "base"));
+    }
+
+    @Test
+    public void detectsFilesWithNonAsciiAndSpecialCharactersInName() throws Exception {
+        assumeTrue("file names can't hold non-ASCII characters", validPath("p\u0159\u00edklad.avsc"));
+        write("schemas/p\u0159\u00edklad.avsc", "{}");
+        write("schemas/quoted \"name\".avsc", "{}");
+
+        assertEquals(files("schemas/p\u0159\u00edklad.avsc", "schemas/quoted \"name\".avsc"), GitChanges.detect(repository, "base"));
+    }
+
+    @Test
+    public void detectsDeletedFiles() throws Exception {
+        Files.delete(new File(repository, "schemas/modified.avsc").toPath());
+
+        assertEquals(files("schemas/modified.avsc"), GitChanges.detect(repository, "base"));
+    }
+
+    @Test
+    public void detectsNoChangesOnBaseRef() {
+        assertTrue(GitChanges.detect(repository, "base").isEmpty());
+    }
+
+    @Test
+    public void failsOnUnknownRef() {
+        try {
+            GitChanges.detect(repository, "unknown");
+            fail("Detection is expected to fail");
+        } catch (SchemaCompatibilityCheckException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("merge-base HEAD unknown"));
+            assertTrue("error output is expected in the message: " + e.getMessage(), e.getMessage().contains("fatal"));
+        }
+    }
+
+    private Set<File> files(final String... paths) {
+        final Set<File> files = new HashSet<>();
+        for (final String path : paths) {
+            files.add(new File(repository, path));
+        }
+        return files;
+    }
+
+    private void write(final String path, final String content) throws IOException {
+        final File file = new File(repository, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void git(final String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        final Process process = new ProcessBuilder(command).directory(repository).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+
+    private static boolean validPath(final String path) {
+        try {
+            Paths.get(path);
+            return true;
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import org.apache.avro.Schema;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompatibilityCheckExecutorTest {
+
+    private static final List<String> SUBJECTS = Arrays.asList("subject-1", "subject-2", "subject-3", "subject-4", "subject-5");
+
+    @Test
+    public void addsResultsInSequentialOrderRegardlessOfCompletionOrder() {
+        final List<String> completedSubjects = new CopyOnWriteArrayList<>();
+        // later subjects complete sooner
+        final CompatibilityChecker checker = (subject, schema) -> {
+            sleep(10L * (SUBJECTS.size() - SUBJECTS.indexOf(subject)));
+            return new CompatibilityVerdict(!subject.equals("subject-2"), 1);
+        };
+        final List<SchemaFileCheckingContext> contexts = Arrays.asList(context("First"), context("Second"));
+
+        try (CompatibilityCheckExecutor executor = new CompatibilityCheckExecutor(SUBJECTS.size(), new RegistryHostLimiter(SUBJECTS.size()),
+                "localhost", checker, true, result -> completedSubjects.add(result.getRegistrySubjectName()), new SystemStreamLog())) {
+            executor.check(contexts);
+        }
+
+        for (final SchemaFileCheckingContext context : contexts) {
+            final List<CompatibilityCheckResult> results = context.getCompatibilityCheckResults();
+            assertEquals(SUBJECTS, results.stream().map(CompatibilityCheckResult::getRegistrySubjectName).collect(Collectors.toList()));
+            assertTrue(results.stream().allMatch(result -> result.getSchemaTypeFullName().equals(context.getSchemaTypeFullName())));
+            assertFalse(results.get(1).isCompatible());
+            assertTrue(results.get(0).isCompatible());
+        }
+        assertEquals(2 * SUBJECTS.size(), completedSubjects.size());
+        assertTrue(completedSubjects.indexOf("subject-5") < completedSubjects.indexOf("subject-1"));
+    }
+
+    @Test
+    public void recordsFailedChecksWithoutFailFast() {
+        final CompatibilityChecker checker = (subject, schema) -> {
+            if (subject.equals("subject-3")) {
+                throw new IOException("Connection refused");
+            }
+            return new CompatibilityVerdict(true, 1);
+        };
+        final SchemaFileCheckingContext context = context("First");
+
+        try (CompatibilityCheckExecutor executor = new CompatibilityCheckExecutor(2, new RegistryHostLimiter(2), "localhost", checker, false,
+                result -> { }, new SystemStreamLog())) {
+            executor.check(Collections.singletonList(context));
+        }
+
+        final List<CompatibilityCheckResult> results = context.getCompatibilityCheckResults();
+        assertEquals(SUBJECTS, results.stream().map(CompatibilityCheckResult::getRegistrySubjectName).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList("subject-3"), context.getFailedCompatibilityCheckResults().stream()
+                .map(CompatibilityCheckResult::getRegistrySubjectName).collect(Collectors.toList()));
+        assertEquals("Connection refused", results.get(2).getFailure());
+    }
+
+    @Test
+    public void failsOnFirstFailedCheckInFailFastMode() {
+        final CompatibilityChecker checker = (subject, schema) -> {
+            throw new IOException("Connection refused");
+        };
+
+        try (CompatibilityCheckExecutor executor = new CompatibilityCheckExecutor(2, new RegistryHostLimiter(2), "localhost", checker, true,
+                result -> { }, new SystemStreamLog())) {
+            executor.check(Collections.singletonList(context("First")));
+            fail("Check is expected to fail");
+        } catch (SchemaCompatibilityCheckException e) {
+            assertEquals("Connection refused", e.getCause().getMessage());
+        }
+    }
+
+    private static SchemaFileCheckingContext context(final String recordName) {
+        final Schema schema = Schema.createRecord(recordName, null, "io.zonky.test", false, Collections.emptyList());
+        final SchemaFileCheckingContext context = new SchemaFileCheckingContext(new File(recordName + ".avsc"), new AvroLocalSchema(new AvroSchemaFormat(), schema));
+        context.addMatchingRegistrySubjectNames(SUBJECTS);
+        return context;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
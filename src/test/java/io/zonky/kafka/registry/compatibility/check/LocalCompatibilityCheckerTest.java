@@ -0,0 +1,134 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import io.zonky.kafka.registry.compatibility.registry.FailingSchemaRegistry;
+import io.zonky.kafka.registry.compatibility.registry.InMemorySchemaRegistry;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSchemaCache;
+import org.apache.avro.Schema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalCompatibilityCheckerTest {
+
+    // version history of every subject - the amount field was removed by the latest version
+    private static final String VERSION_1 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"string\"}]}";
+    private static final String VERSION_2 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    // compatible with the latest version both ways, but the amount type can't be resolved against the first version
+    private static final String READDED_FIELD = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0}]}";
+    // only the latest reader can read it, new reader can't read old data missing the field and the first reader can't read
+    // new data missing the amount field
+    private static final String ADDED_REQUIRED_FIELD = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"note\",\"type\":\"string\"}]}";
+    // only new reader can read it, old readers can't read new data missing the field
+    private static final String REMOVED_REQUIRED_FIELD = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[]}";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FailingSchemaRegistry registry;
+    private LocalCompatibilityChecker checker;
+
+    @Before
+    public void setUp() throws Exception {
+        final InMemorySchemaRegistry contents = new InMemorySchemaRegistry("BACKWARD");
+        for (final CompatibilityLevel level : CompatibilityLevel.values()) {
+            contents.subject(subject(level), level.name(), VERSION_1, VERSION_2);
+        }
+        contents.subject("global-value", null, VERSION_1, VERSION_2);
+        registry = new FailingSchemaRegistry(contents.client(temporaryFolder.getRoot()));
+        final SchemaRegistryClient client = registry.client();
+        checker = new LocalCompatibilityChecker(new RemoteSchemaCache(), new RegistryInvoker(() -> client, new CheckMetrics()));
+    }
+
+    @Test
+    public void evaluatesNonTransitiveLevelsAgainstLatestVersion() throws Exception {
+        assertCompatible(CompatibilityLevel.NONE, true, true, true);
+        assertCompatible(CompatibilityLevel.BACKWARD, true, false, true);
+        assertCompatible(CompatibilityLevel.FORWARD, true, true, false);
+        assertCompatible(CompatibilityLevel.FULL, true, false, false);
+    }
+
+    @Test
+    public void evaluatesTransitiveLevelsAgainstAllVersions() throws Exception {
+        assertCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, false, false, true);
+        assertCompatible(CompatibilityLevel.FORWARD_TRANSITIVE, false, false, false);
+        assertCompatible(CompatibilityLevel.FULL_TRANSITIVE, false, false, false);
+    }
+
+    @Test
+    public void subjectLevelOverridesGlobalLevel() throws Exception {
+        assertFalse(checker.check("global-value", schema(ADDED_REQUIRED_FIELD)).isCompatible());
+        assertTrue(checker.check(subject(CompatibilityLevel.NONE), schema(ADDED_REQUIRED_FIELD)).isCompatible());
+        assertTrue(checker.check(subject(CompatibilityLevel.FORWARD), schema(ADDED_REQUIRED_FIELD)).isCompatible());
+
+        assertEquals(1, registry.getCalls("getCompatibility", "global-value"));
+        assertEquals(1, registry.getCalls("getCompatibility", null));
+    }
+
+    @Test
+    public void reportsLatestRemoteVersion() throws Exception {
+        assertEquals(Integer.valueOf(2), checker.check(subject(CompatibilityLevel.BACKWARD), schema(READDED_FIELD)).getRemoteVersion());
+        assertEquals(Integer.valueOf(2), checker.check(subject(CompatibilityLevel.FULL_TRANSITIVE), schema(READDED_FIELD)).getRemoteVersion());
+    }
+
+    @Test
+    public void fetchesEverySubjectOnce() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            for (final CompatibilityLevel level : CompatibilityLevel.values()) {
+                checker.check(subject(level), schema(READDED_FIELD));
+                checker.check(subject(level), schema(ADDED_REQUIRED_FIELD));
+            }
+            checker.check("global-value", schema(READDED_FIELD));
+        }
+
+        for (final CompatibilityLevel level : CompatibilityLevel.values()) {
+            final String subject = subject(level);
+            assertEquals(subject, 1, registry.getCalls("getCompatibility", subject));
+            if (level == CompatibilityLevel.NONE) {
+                assertEquals(subject, 0, registry.getCalls("getLatestSchemaMetadata", subject) + registry.getCalls("getAllVersions", subject));
+            } else if (level.isTransitive()) {
+                assertEquals(subject, 1, registry.getCalls("getAllVersions", subject));
+                assertEquals(subject, 2, registry.getCalls("getSchemaMetadata", subject));
+                assertEquals(subject, 0, registry.getCalls("getLatestSchemaMetadata", subject));
+            } else {
+                assertEquals(subject, 1, registry.getCalls("getLatestSchemaMetadata", subject));
+                assertEquals(subject, 0, registry.getCalls("getAllVersions", subject));
+            }
+            assertEquals(subject, 0, registry.getCalls("testCompatibility", subject));
+        }
+        assertEquals(1, registry.getCalls("getCompatibility", "global-value"));
+        assertEquals(1, registry.getCalls("getLatestSchemaMetadata", "global-value"));
+        assertEquals(1, registry.getCalls("getCompatibility", null));
+    }
+
+    private void assertCompatible(final CompatibilityLevel level, final boolean readdedField, final boolean addedRequiredField,
+                                  final boolean removedRequiredField) throws Exception {
+        final String subject = subject(level);
+        assertEquals(level + " " + READDED_FIELD, readdedField, checker.check(subject, schema(READDED_FIELD)).isCompatible());
+        assertEquals(level + " " + ADDED_REQUIRED_FIELD, addedRequiredField, checker.check(subject, schema(ADDED_REQUIRED_FIELD)).isCompatible());
+        assertEquals(level + " " + REMOVED_REQUIRED_FIELD, removedRequiredField, checker.check(subject, schema(REMOVED_REQUIRED_FIELD)).isCompatible());
+    }
+
+    private static String subject(final CompatibilityLevel level) {
+        return level.name().toLowerCase(Locale.ROOT) + "-value";
+    }
+
+    private static LocalSchema schema(final String definition) {
+        return new AvroLocalSchema(new AvroSchemaFormat(), new Schema.Parser().parse(definition));
+    }
+}
@@ -0,0 +1,159 @@
+package io.zonky.kafka.registry.compatibility.check;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import io.zonky.kafka.registry.compatibility.format.LocalSchema;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import io.zonky.kafka.registry.compatibility.registry.FailingSchemaRegistry;
+import io.zonky.kafka.registry.compatibility.registry.InMemorySchemaRegistry;
+import io.zonky.kafka.registry.compatibility.registry.RegistryInvoker;
+import io.zonky.kafka.registry.compatibility.registry.RemoteSchemaCache;
+import org.apache.avro.Schema;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VersionHistoryCheckerTest {
+
+    private static final String ID = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String AMOUNT = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0}]}";
+    private static final String NOTE = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0},{\"name\":\"note\",\"type\":\"string\",\"default\":\"\"}]}";
+    private static final String STRING_AMOUNT = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"string\"}]}";
+    private static final String LOCAL = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0},{\"name\":\"note\",\"type\":\"string\",\"default\":\"\"},"
+            + "{\"name\":\"currency\",\"type\":\"string\",\"default\":\"CZK\"}]}";
+
+    // subjects sharing the same three schemas in different version histories
+    private static final Map<String, List<String>> SHARED_HISTORIES = new LinkedHashMap<>();
+
+    static {
+        SHARED_HISTORIES.put("payment-value", Arrays.asList(ID, AMOUNT, NOTE));
+        SHARED_HISTORIES.put("refund-value", Arrays.asList(ID, AMOUNT, NOTE));
+        SHARED_HISTORIES.put("invoice-value", Arrays.asList(AMOUNT, NOTE, NOTE));
+        SHARED_HISTORIES.put("order-value", Arrays.asList(NOTE, ID, AMOUNT, ID));
+    }
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FailingSchemaRegistry registry;
+    private RemoteSchemaCache remoteSchemaCache;
+    private RegistryInvoker registryInvoker;
+
+    @Before
+    public void setUp() throws Exception {
+        final InMemorySchemaRegistry contents = new InMemorySchemaRegistry("BACKWARD");
+        SHARED_HISTORIES.forEach((subject, versions) -> contents.subject(subject, null, versions.toArray(new String[0])));
+        contents.subject("legacy-value", null, STRING_AMOUNT, ID, AMOUNT);
+        registry = new FailingSchemaRegistry(contents.client(temporaryFolder.getRoot()));
+        final SchemaRegistryClient client = registry.client();
+        remoteSchemaCache = new RemoteSchemaCache();
+        registryInvoker = new RegistryInvoker(() -> client, new CheckMetrics());
+    }
+
+    @Test
+    public void parsesAndEvaluatesEveryDistinctSchemaOnceAcrossSubjects() throws Exception {
+        final List<String> subjects = new ArrayList<>(SHARED_HISTORIES.keySet());
+        final SchemaFileCheckingContext context = new SchemaFileCheckingContext(new File("Payment.avsc"), schema(LOCAL));
+        context.addMatchingRegistrySubjectNames(subjects);
+
+        try (VersionHistoryChecker checker = checker(VersionHistoryChecker.ALL_VERSIONS, 4);
+             CompatibilityCheckExecutor executor = new CompatibilityCheckExecutor(4, new RegistryHostLimiter(4), "localhost", checker, true,
+                     result -> { }, new SystemStreamLog())) {
+            executor.check(Collections.singletonList(context));
+
+            assertTrue(context.getCompatibilityCheckResults().stream().allMatch(CompatibilityCheckResult::isCompatible));
+            assertEquals(3, checker.getEvaluations());
+        }
+
+        SHARED_HISTORIES.forEach((subject, versions) -> assertEquals(subject, versions.size(), registry.getCalls("getSchemaMetadata", subject)));
+        final Schema latestPayment = remoteSchemaCache.getVersion("payment-value", 3, registryInvoker).getSchema();
+        assertSame(latestPayment, remoteSchemaCache.getVersion("refund-value", 3, registryInvoker).getSchema());
+        assertSame(latestPayment, remoteSchemaCache.getVersion("invoice-value", 2, registryInvoker).getSchema());
+        assertSame(latestPayment, remoteSchemaCache.getVersion("order-value", 1, registryInvoker).getSchema());
+    }
+
+    @Test
+    public void fetchesEveryVersionOnce() throws Exception {
+        try (VersionHistoryChecker checker = checker(VersionHistoryChecker.ALL_VERSIONS, 4)) {
+            for (int i = 0; i < 3; i++) {
+                for (final String subject : SHARED_HISTORIES.keySet()) {
+                    assertTrue(checker.check(subject, schema(LOCAL)).isCompatible());
+                }
+            }
+        }
+
+        SHARED_HISTORIES.forEach((subject, versions) -> {
+            assertEquals(subject, 1, registry.getCalls("getAllVersions", subject));
+            assertEquals(subject, versions.size(), registry.getCalls("getSchemaMetadata", subject));
+        });
+    }
+
+    @Test
+    public void reportsIncompatibleHistoricalVersion() throws Exception {
+        try (VersionHistoryChecker checker = checker(VersionHistoryChecker.ALL_VERSIONS, 2)) {
+            final CompatibilityVerdict verdict = checker.check("legacy-value", schema(LOCAL));
+
+            assertFalse(verdict.isCompatible());
+            assertEquals(Integer.valueOf(1), verdict.getRemoteVersion());
+        }
+    }
+
+    @Test
+    public void checksOnlyGivenNumberOfLatestVersions() throws Exception {
+        try (VersionHistoryChecker checker = checker(2, 2)) {
+            assertTrue(checker.check("legacy-value", schema(LOCAL)).isCompatible());
+        }
+
+        assertEquals(2, registry.getCalls("getSchemaMetadata", "legacy-value"));
+    }
+
+    @Test
+    public void fetchesHistoryWithoutFreeHostPermits() throws Exception {
+        final RegistryHostLimiter hostLimiter = new RegistryHostLimiter(1);
+        // the only permit is held by the check itself, so the checking thread has to fetch all the versions
+        hostLimiter.acquire("localhost");
+        try (VersionHistoryChecker checker = new VersionHistoryChecker(compatibleChecker(), remoteSchemaCache, registryInvoker,
+                VersionHistoryChecker.ALL_VERSIONS, hostLimiter, "localhost", 4)) {
+            assertFalse(checker.check("legacy-value", schema(LOCAL)).isCompatible());
+        } finally {
+            hostLimiter.release("localhost");
+        }
+
+        assertEquals(3, registry.getCalls("getSchemaMetadata", "legacy-value"));
+    }
+
+    private VersionHistoryChecker checker(final int historyDepth, final int prefetchThreads) {
+        return new VersionHistoryChecker(compatibleChecker(), remoteSchemaCache, registryInvoker, historyDepth, new RegistryHostLimiter(4),
+                "localhost", prefetchThreads);
+    }
+
+    private static CompatibilityChecker compatibleChecker() {
+        return (subject, schema) -> new CompatibilityVerdict(true, null);
+    }
+
+    private static LocalSchema schema(final String definition) {
+        return new AvroLocalSchema(new AvroSchemaFormat(), new Schema.Parser().parse(definition));
+    }
+}
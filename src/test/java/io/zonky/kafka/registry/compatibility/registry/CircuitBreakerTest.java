@@ -0,0 +1,97 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("registry", 3, 100, clock::get);
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        failCalls(2);
+        circuitBreaker.acquire();
+        circuitBreaker.onFailure();
+
+        assertRejected();
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        failCalls(2);
+        circuitBreaker.acquire();
+        circuitBreaker.onSuccess();
+        failCalls(2);
+
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    public void letsSingleTrialCallThroughOnceOpenPeriodElapses() {
+        failCalls(3);
+        clock.addAndGet(99);
+        assertRejected();
+
+        clock.addAndGet(1);
+        circuitBreaker.acquire();
+        assertRejected();
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.acquire();
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    public void failedTrialCallOpensBreakerAgain() {
+        failCalls(3);
+        clock.addAndGet(100);
+        circuitBreaker.acquire();
+        circuitBreaker.onFailure();
+
+        assertRejected();
+        clock.addAndGet(100);
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    public void disabledBreakerNeverOpens() {
+        for (int i = 0; i < 100; i++) {
+            CircuitBreaker.DISABLED.acquire();
+            CircuitBreaker.DISABLED.onFailure();
+        }
+        CircuitBreaker.DISABLED.acquire();
+    }
+
+    @Test
+    public void tryAcquireReportsOpenBreakerWithoutThrowing() {
+        failCalls(3);
+        assertFalse(circuitBreaker.tryAcquire());
+
+        clock.addAndGet(100);
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private void failCalls(final int count) {
+        for (int i = 0; i < count; i++) {
+            circuitBreaker.acquire();
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private void assertRejected() {
+        try {
+            circuitBreaker.acquire();
+            fail("Circuit breaker is expected to be open");
+        } catch (SchemaCompatibilityCheckException e) {
+            // expected
+        }
+    }
+}
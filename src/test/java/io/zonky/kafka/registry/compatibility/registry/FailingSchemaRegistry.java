@@ -0,0 +1,87 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wrapper of schema registry client injecting faults - calls of the wrapper fail with the queued exceptions first, the
+ * following calls are delegated to the wrapped client. Faults may be queued for all the calls or for calls of a single subject.
+ * Calls are counted per client method and subject.
+ */
+public class FailingSchemaRegistry {
+
+    private final SchemaRegistryClient delegate;
+    private final Queue<Exception> faults = new ConcurrentLinkedQueue<>();
+    private final Map<String, Queue<Exception>> subjectFaults = new ConcurrentHashMap<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Map<String, AtomicInteger> callsByMethodAndSubject = new ConcurrentHashMap<>();
+
+    public FailingSchemaRegistry(final SchemaRegistryClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Queues faults of the next calls.
+     */
+    public FailingSchemaRegistry failWith(final Exception... exceptions) {
+        for (final Exception exception : exceptions) {
+            faults.add(exception);
+        }
+        return this;
+    }
+
+    /**
+     * Queues faults of the next calls of given subject.
+     */
+    public FailingSchemaRegistry failSubjectWith(final String subject, final Exception... exceptions) {
+        final Queue<Exception> queue = subjectFaults.computeIfAbsent(subject, s -> new ConcurrentLinkedQueue<>());
+        for (final Exception exception : exceptions) {
+            queue.add(exception);
+        }
+        return this;
+    }
+
+    /**
+     * Number of calls of the client, including the failed ones.
+     */
+    public int getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Number of calls of given client method with given subject (null for calls without subject, e.g. of global settings),
+     * including the failed ones.
+     */
+    public int getCalls(final String method, final String subject) {
+        final AtomicInteger count = callsByMethodAndSubject.get(method + "|" + subject);
+        return count == null ? 0 : count.get();
+    }
+
+    public SchemaRegistryClient client() {
+        return (SchemaRegistryClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SchemaRegistryClient.class},
+                (proxy, method, args) -> {
+                    calls.incrementAndGet();
+                    final Object subject = args != null && args.length > 0 && (args[0] == null || args[0] instanceof String) ? args[0] : null;
+                    callsByMethodAndSubject.computeIfAbsent(method.getName() + "|" + subject, key -> new AtomicInteger()).incrementAndGet();
+                    Exception fault = faults.poll();
+                    if (fault == null && subject != null && subjectFaults.containsKey(subject)) {
+                        fault = subjectFaults.get(subject).poll();
+                    }
+                    if (fault != null) {
+                        throw fault;
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,69 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.google.gson.JsonObject;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builder of schema registry contents served by an in-memory {@link SnapshotSchemaRegistryClient}. Equal schemas share the
+ * same id, the same way as in remote schema registry.
+ */
+public class InMemorySchemaRegistry {
+
+    private final JsonObject subjects = new JsonObject();
+    private final JsonObject schemas = new JsonObject();
+    private final Map<String, Integer> schemaIds = new HashMap<>();
+    private final String globalCompatibilityLevel;
+
+    public InMemorySchemaRegistry(final String globalCompatibilityLevel) {
+        this.globalCompatibilityLevel = globalCompatibilityLevel;
+    }
+
+    /**
+     * Adds subject with given versions.
+     *
+     * @param name               subject name
+     * @param compatibilityLevel compatibility level of the subject, or null if it uses the global one
+     * @param versions           schemas of the subject versions, starting with version 1
+     */
+    public InMemorySchemaRegistry subject(final String name, final String compatibilityLevel, final String... versions) {
+        final JsonObject schemaIdsByVersion = new JsonObject();
+        for (int i = 0; i < versions.length; i++) {
+            final String schema = versions[i];
+            final int schemaId = schemaIds.computeIfAbsent(schema, s -> schemaIds.size() + 1);
+            schemas.addProperty(String.valueOf(schemaId), schema);
+            schemaIdsByVersion.addProperty(String.valueOf(i + 1), schemaId);
+        }
+        final JsonObject subject = new JsonObject();
+        subject.addProperty("compatibilityLevel", compatibilityLevel);
+        subject.add("schemaIdsByVersion", schemaIdsByVersion);
+        subjects.add(name, subject);
+        return this;
+    }
+
+    /**
+     * Creates client serving current contents of the registry.
+     *
+     * @param directory directory the contents are stored to
+     */
+    public SchemaRegistryClient client(final File directory) throws IOException {
+        final JsonObject snapshot = new JsonObject();
+        snapshot.addProperty("formatVersion", RegistrySnapshot.FORMAT_VERSION);
+        snapshot.addProperty("globalCompatibilityLevel", globalCompatibilityLevel);
+        snapshot.add("subjects", subjects);
+        snapshot.add("schemas", schemas);
+
+        final File file = File.createTempFile("registry", ".json", directory);
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(snapshot.toString());
+        }
+        return SnapshotSchemaRegistryClient.load(file);
+    }
+}
@@ -0,0 +1,91 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.sun.net.httpserver.HttpServer;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.avro.Schema;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KeepAliveSchemaRegistryClientTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[]}");
+
+    private HttpServer registry;
+
+    @After
+    public void tearDown() {
+        if (registry != null) {
+            registry.stop(0);
+            registry = null;
+        }
+    }
+
+    @Test
+    public void parsesWellFormedResponses() throws Exception {
+        assertTrue(client("{\"is_compatible\":true}").testCompatibility("payment-value", SCHEMA));
+        tearDown();
+        assertEquals(Arrays.asList(1, 2), client("[1,2]").getAllVersions("payment-value"));
+        tearDown();
+        assertEquals(3, client("{\"subject\":\"payment-value\",\"id\":3,\"version\":2,\"schema\":\"\\\"string\\\"\"}")
+                .getLatestSchemaMetadata("payment-value").getId());
+        tearDown();
+        assertNull(client("{}").getCompatibility("payment-value"));
+        tearDown();
+        assertEquals("FULL", client("{\"compatibilityLevel\":\"FULL\"}").getCompatibility("payment-value"));
+    }
+
+    @Test
+    public void rejectsResponsesOfUnexpectedShape() throws Exception {
+        assertRejected(() -> client("{}").testCompatibility("payment-value", SCHEMA));
+        assertRejected(() -> client("{\"is_compatible\":\"maybe\"}").testCompatibility("payment-value", SCHEMA));
+        assertRejected(() -> client("[true]").testCompatibility("payment-value", SCHEMA));
+        assertRejected(() -> client("{\"versions\":[1]}").getAllVersions("payment-value"));
+        assertRejected(() -> client("[1,null]").getAllVersions("payment-value"));
+        assertRejected(() -> client("{\"id\":3,\"version\":2}").getLatestSchemaMetadata("payment-value"));
+        assertRejected(() -> client("{\"id\":\"three\",\"version\":2,\"schema\":\"\\\"string\\\"\"}").getSchemaMetadata("payment-value", 2));
+        assertRejected(() -> client("{\"compatibilityLevel\":{\"level\":\"FULL\"}}").getCompatibility("payment-value"));
+        assertRejected(() -> client("").getCompatibility("payment-value"));
+    }
+
+    private KeepAliveSchemaRegistryClient client(final String response) throws IOException {
+        registry = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        registry.createContext("/", exchange -> {
+            final byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/vnd.schemaregistry.v1+json");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        registry.start();
+        final String url = "http://localhost:" + registry.getAddress().getPort();
+        return new KeepAliveSchemaRegistryClient(new RegistryRestService(Collections.singletonList(url), 1000, 1000), 10, Collections.emptyMap());
+    }
+
+    private void assertRejected(final RegistryCall call) throws IOException {
+        try {
+            call.run();
+            fail("Response is expected to be rejected");
+        } catch (RestClientException e) {
+            assertEquals(RegistryRestService.JSON_PARSE_ERROR_CODE, e.getErrorCode());
+        } finally {
+            tearDown();
+        }
+    }
+
+    private interface RegistryCall {
+        void run() throws IOException, RestClientException;
+    }
+}
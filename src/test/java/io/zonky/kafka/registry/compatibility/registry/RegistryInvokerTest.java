@@ -0,0 +1,147 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.check.CompatibilityCheckExecutor;
+import io.zonky.kafka.registry.compatibility.check.RegistryHostLimiter;
+import io.zonky.kafka.registry.compatibility.check.RemoteCompatibilityChecker;
+import io.zonky.kafka.registry.compatibility.domain.CompatibilityCheckResult;
+import io.zonky.kafka.registry.compatibility.domain.SchemaFileCheckingContext;
+import io.zonky.kafka.registry.compatibility.format.AvroLocalSchema;
+import io.zonky.kafka.registry.compatibility.format.AvroSchemaFormat;
+import io.zonky.kafka.registry.compatibility.metrics.CheckMetrics;
+import org.apache.avro.Schema;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RegistryInvokerTest {
+
+    private static final String SUBJECT = "payment-value";
+    private static final String VERSION_1 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String VERSION_2 = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"amount\",\"type\":\"int\",\"default\":0}]}";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final CheckMetrics metrics = new CheckMetrics();
+    private FailingSchemaRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        final InMemorySchemaRegistry contents = new InMemorySchemaRegistry("BACKWARD");
+        for (final String subject : Arrays.asList(SUBJECT, "refund-value", "invoice-value")) {
+            contents.subject(subject, null, VERSION_1);
+        }
+        registry = new FailingSchemaRegistry(contents.client(temporaryFolder.getRoot()));
+    }
+
+    @Test
+    public void retriesServiceUnavailable() throws Exception {
+        registry.failWith(new RestClientException("Service unavailable", 503, 50003), new RestClientException("Service unavailable", 503, 50003));
+
+        assertTrue(testCompatibility(invoker(3)));
+        assertEquals(3, registry.getCalls());
+        assertEquals(2, metrics.getCounter(CheckMetrics.RETRIES));
+        assertEquals(3, metrics.getCounter(CheckMetrics.REGISTRY_CALLS));
+    }
+
+    @Test
+    public void retriesThrottledCalls() throws Exception {
+        registry.failWith(new RestClientException("Too many requests", 429, 42900));
+
+        assertTrue(testCompatibility(invoker(3)));
+        assertEquals(2, registry.getCalls());
+        assertEquals(1, metrics.getCounter(CheckMetrics.RETRIES));
+    }
+
+    @Test
+    public void retriesIoErrors() throws Exception {
+        registry.failWith(new SocketTimeoutException("Read timed out"), new IOException("Connection reset"));
+
+        assertTrue(testCompatibility(invoker(3)));
+        assertEquals(3, registry.getCalls());
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        final RestClientException notFound = new RestClientException("Subject not found", 404, 40401);
+        registry.failWith(notFound);
+
+        try {
+            testCompatibility(invoker(3));
+            fail("Call is expected to fail");
+        } catch (RestClientException e) {
+            assertSame(notFound, e);
+        }
+        assertEquals(1, registry.getCalls());
+        assertEquals(0, metrics.getCounter(CheckMetrics.RETRIES));
+    }
+
+    @Test
+    public void failsOnceRetriesAreExhausted() throws Exception {
+        final RestClientException lastFailure = new RestClientException("Service unavailable", 503, 50003);
+        registry.failWith(new IOException("Connection refused"), new RestClientException("Service unavailable", 503, 50003), lastFailure);
+
+        try {
+            testCompatibility(invoker(2));
+            fail("Call is expected to fail");
+        } catch (RestClientException e) {
+            assertSame(lastFailure, e);
+        }
+        assertEquals(3, registry.getCalls());
+        assertEquals(2, metrics.getCounter(CheckMetrics.RETRIES));
+    }
+
+    @Test
+    public void reportsAllRegistryErrorsWithoutFailFast() {
+        registry.failSubjectWith("refund-value", new RestClientException("Service unavailable", 503, 50003),
+                new RestClientException("Service unavailable", 503, 50003));
+        registry.failSubjectWith("invoice-value", new RestClientException("Unauthorized", 401, 40101));
+        final List<String> subjects = Arrays.asList(SUBJECT, "refund-value", "invoice-value");
+        final SchemaFileCheckingContext context = new SchemaFileCheckingContext(new File("Payment.avsc"),
+                new AvroLocalSchema(new AvroSchemaFormat(), new Schema.Parser().parse(VERSION_2)));
+        context.addMatchingRegistrySubjectNames(subjects);
+
+        try (CompatibilityCheckExecutor executor = new CompatibilityCheckExecutor(2, new RegistryHostLimiter(2), "localhost",
+                new RemoteCompatibilityChecker(invoker(1)), false, result -> { }, new SystemStreamLog())) {
+            executor.check(Collections.singletonList(context));
+        }
+
+        final List<CompatibilityCheckResult> results = context.getCompatibilityCheckResults();
+        assertEquals(subjects, results.stream().map(CompatibilityCheckResult::getRegistrySubjectName).collect(Collectors.toList()));
+        assertFalse(results.get(0).isFailed());
+        assertTrue(results.get(0).isCompatible());
+        assertTrue(results.get(1).isFailed());
+        assertTrue(results.get(1).getFailure(), results.get(1).getFailure().contains("Service unavailable"));
+        assertTrue(results.get(2).isFailed());
+        assertTrue(results.get(2).getFailure(), results.get(2).getFailure().contains("Unauthorized"));
+        assertEquals(1, metrics.getCounter(CheckMetrics.RETRIES));
+    }
+
+    private RegistryInvoker invoker(final int maxRetries) {
+        final SchemaRegistryClient client = registry.client();
+        return new RegistryInvoker(() -> client, metrics, new RetryPolicy(maxRetries, 1, 1));
+    }
+
+    private static boolean testCompatibility(final RegistryInvoker invoker) throws IOException, RestClientException {
+        return invoker.invoke(RegistryEndpoint.COMPATIBILITY, client -> client.testCompatibility(SUBJECT, new Schema.Parser().parse(VERSION_2)));
+    }
+}
@@ -0,0 +1,117 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import com.sun.net.httpserver.HttpServer;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RegistryRestServiceTest {
+
+    private final AtomicInteger unavailableCalls = new AtomicInteger();
+    private final AtomicInteger availableCalls = new AtomicInteger();
+    private HttpServer unavailableRegistry;
+    private HttpServer availableRegistry;
+
+    @Before
+    public void setUp() throws Exception {
+        unavailableRegistry = startRegistry(unavailableCalls, 503, "{\"error_code\":50003,\"message\":\"Service unavailable\"}");
+        availableRegistry = startRegistry(availableCalls, 200, "[\"payment-value\"]");
+    }
+
+    @After
+    public void tearDown() {
+        unavailableRegistry.stop(0);
+        availableRegistry.stop(0);
+    }
+
+    @Test
+    public void skipsUrlWithOpenCircuitBreaker() throws Exception {
+        final RegistryRestService restService = new RegistryRestService(Arrays.asList(url(unavailableRegistry), url(availableRegistry)), 1000, 1000, 2, 60000);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                restService.send("GET", "/subjects", null, Collections.emptyMap());
+                fail("Request is expected to fail");
+            } catch (RestClientException e) {
+                assertEquals(503, e.getStatus());
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals("[\"payment-value\"]", restService.send("GET", "/subjects", null, Collections.emptyMap()));
+        }
+
+        assertEquals(2, unavailableCalls.get());
+        assertEquals(3, availableCalls.get());
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenCircuitBreaker() throws Exception {
+        final HttpServer notFoundRegistry = startRegistry(new AtomicInteger(), 404, "{\"error_code\":40401,\"message\":\"Subject not found\"}");
+        try {
+            final RegistryRestService restService = new RegistryRestService(Collections.singletonList(url(notFoundRegistry)), 1000, 1000, 1, 60000);
+            for (int i = 0; i < 3; i++) {
+                try {
+                    restService.send("GET", "/subjects/payment-value/versions", null, Collections.emptyMap());
+                    fail("Request is expected to fail");
+                } catch (RestClientException e) {
+                    assertEquals("Subject not found", e.getMessage());
+                }
+            }
+        } finally {
+            notFoundRegistry.stop(0);
+        }
+    }
+
+    @Test
+    public void failsRightAwayOnceAllCircuitBreakersAreOpen() throws Exception {
+        final RegistryRestService restService = new RegistryRestService(Collections.singletonList(url(unavailableRegistry)), 1000, 1000, 1, 60000);
+        try {
+            restService.send("GET", "/subjects", null, Collections.emptyMap());
+            fail("Request is expected to fail");
+        } catch (RestClientException e) {
+            assertEquals(503, e.getStatus());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                restService.send("GET", "/subjects", null, Collections.emptyMap());
+                fail("Request is expected to be rejected");
+            } catch (SchemaCompatibilityCheckException e) {
+                // expected
+            }
+        }
+        assertEquals(1, unavailableCalls.get());
+    }
+
+    private static HttpServer startRegistry(final AtomicInteger calls, final int status, final String response) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            final byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/vnd.schemaregistry.v1+json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String url(final HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+}
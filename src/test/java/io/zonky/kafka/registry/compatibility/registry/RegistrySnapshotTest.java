@@ -0,0 +1,69 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.zonky.kafka.registry.compatibility.exception.SchemaCompatibilityCheckException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RegistrySnapshotTest {
+
+    private static final String AVRO = "{\"type\":\"record\",\"name\":\"Payment\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String PROTOBUF = "syntax = \"proto3\";\nmessage Refund {\n  int64 id = 1;\n}\n";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SchemaRegistryClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        client = new InMemorySchemaRegistry("BACKWARD")
+                .subject("payment-value", null, AVRO)
+                .subject("refund-value", "FULL", PROTOBUF)
+                .client(temporaryFolder.getRoot());
+    }
+
+    @Test
+    public void rejectsNonAvroSchemas() throws Exception {
+        try {
+            RegistrySnapshot.capture(client, subject -> true);
+            fail("Capture is expected to fail");
+        } catch (SchemaCompatibilityCheckException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("subject refund-value (version 1) is not an Avro schema"));
+        }
+    }
+
+    @Test
+    public void capturesSubjectsSelectedByFilter() throws Exception {
+        final RegistrySnapshot snapshot = RegistrySnapshot.capture(client, "payment-value"::equals);
+        final File file = new File(temporaryFolder.getRoot(), "snapshot.json.gz");
+        snapshot.write(file);
+
+        final SnapshotSchemaRegistryClient snapshotClient = SnapshotSchemaRegistryClient.load(file);
+        assertEquals(Collections.singletonList("payment-value"), snapshotClient.getAllSubjects());
+        assertEquals("BACKWARD", snapshotClient.getCompatibility(null));
+        assertEquals(AVRO, snapshotClient.getLatestSchemaMetadata("payment-value").getSchema());
+    }
+
+    @Test
+    public void reportsNonAvroSchemaOfSnapshotAsInvalid() throws Exception {
+        final int schemaId = client.getLatestSchemaMetadata("refund-value").getId();
+        try {
+            client.getById(schemaId);
+            fail("Schema is expected to be rejected");
+        } catch (RestClientException e) {
+            assertEquals(422, e.getStatus());
+            assertEquals(42201, e.getErrorCode());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.zonky.kafka.registry.compatibility.registry;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(5, 100, 1000);
+
+    @Test
+    public void retriesTransientErrorsOnly() {
+        assertTrue(retryPolicy.isRetryable(new IOException("Connection refused")));
+        assertTrue(retryPolicy.isRetryable(new SocketTimeoutException("Read timed out")));
+        assertTrue(retryPolicy.isRetryable(new RestClientException("Service unavailable", 503, 50003)));
+        assertTrue(retryPolicy.isRetryable(new RestClientException("Internal server error", 500, 50001)));
+        assertTrue(retryPolicy.isRetryable(new RestClientException("Too many requests", 429, 42900)));
+
+        assertFalse(retryPolicy.isRetryable(new RestClientException("Subject not found", 404, 40401)));
+        assertFalse(retryPolicy.isRetryable(new RestClientException("Unauthorized", 401, 40101)));
+        assertFalse(retryPolicy.isRetryable(new RestClientException("Invalid schema", 422, 42201)));
+        assertFalse(retryPolicy.isRetryable(new IllegalStateException()));
+    }
+
+    @Test
+    public void backoffIsBoundedByExponentialCeiling() {
+        for (int i = 0; i < 1000; i++) {
+            assertBetween(0, 100, retryPolicy.backoffMillis(1));
+            assertBetween(0, 200, retryPolicy.backoffMillis(2));
+            assertBetween(0, 400, retryPolicy.backoffMillis(3));
+            assertBetween(0, 800, retryPolicy.backoffMillis(4));
+            assertBetween(0, 1000, retryPolicy.backoffMillis(5));
+        }
+    }
+
+    @Test
+    public void backoffIsJittered() {
+        final Set<Long> backoffs = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            backoffs.add(retryPolicy.backoffMillis(3));
+        }
+        assertTrue("Backoffs are expected to be randomized, got " + backoffs, backoffs.size() > 50);
+    }
+
+    @Test
+    public void backoffOfManyRetriesIsCappedByMaxBackoff() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(0, 1000, retryPolicy.backoffMillis(40));
+            assertBetween(0, 1000, retryPolicy.backoffMillis(Integer.MAX_VALUE));
+        }
+        final RetryPolicy largeBackoff = new RetryPolicy(100, Long.MAX_VALUE / 4, 5000);
+        assertBetween(0, 5000, largeBackoff.backoffMillis(10));
+    }
+
+    @Test
+    public void policyWithoutRetriesHasNoBackoff() {
+        assertEquals(0, RetryPolicy.NONE.getMaxRetries());
+        assertEquals(0, RetryPolicy.NONE.backoffMillis(1));
+    }
+
+    private static void assertBetween(final long min, final long max, final long value) {
+        assertTrue(String.format("Expected value between %s and %s, got %s", min, max, value), value >= min && value <= max);
+    }
+}